@@ -1,127 +1,552 @@
 package com.example.demo1.Controller;
 
 import com.example.demo1.Entity.CartItem;
+import com.example.demo1.Entity.FoodOrder;
 import com.example.demo1.Entity.food;
 import com.example.demo1.Mapper.foodMapper;
+import com.example.demo1.cart.Cart;
+import com.example.demo1.cart.CartDelta;
+import com.example.demo1.cart.CartLine;
+import com.example.demo1.cart.CartOp;
+import com.example.demo1.cart.CartStore;
+import com.example.demo1.cart.CartVersionConflictException;
+import com.example.demo1.catalog.Money;
+import com.example.demo1.service.CatalogService;
+import com.example.demo1.service.InventoryService;
+import com.example.demo1.service.OrderService;
+import com.example.demo1.service.TrendingService;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.util.WebUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/cart")
 public class CartController {
 
+    private static final Logger log = LoggerFactory.getLogger(CartController.class);
+
+    private static final String CART_COOKIE = "CART_ID";
+
+    private static final Pattern CART_ID_PATTERN = Pattern.compile("[0-9a-f]{32}");
+
+    private static final String OTHER_RESTAURANT = "购物车中已有其他餐厅的菜品，请先结算或清空购物车";
+
+    private static final int MAX_BATCH_OPS = 100;
+
+    @Autowired
+    private CatalogService catalogService;
+
     @Autowired
     private foodMapper foodMp;
 
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Value("${cart.ttl-minutes:1440}")
+    private long cartTtlMinutes;
+
+    /**
+     * 购物车JSON，带sinceVersion时只返回该版本之后改动过的行（items）和删除的菜品（removed）；
+     * 变化记录已被淘汰时返回完整购物车，full为true，客户端应整体替换
+     */
+    @GetMapping
+    public Map<String, Object> cart(@RequestParam(required = false) Long sinceVersion,
+                                    HttpServletRequest request, HttpServletResponse response) {
+        CartDelta delta = cartStore.changesSince(cartId(request, response), sinceVersion == null ? -1 : sinceVersion);
+        Map<String, Object> result = new HashMap<>();
+        result.put("version", delta.version());
+        result.put("full", delta.full());
+        result.put("items", cartItems(delta.lines(), delta.restaurantId()));
+        result.put("removed", delta.removed());
+        result.put("total", delta.total());
+        result.put("totalText", Money.format(delta.total()));
+        return result;
+    }
+
+    /**
+     * 购物车侧栏与当前用户信息片段，菜单页加载后单独请求，使菜单页本身可以缓存
+     */
+    @GetMapping("/panel")
+    public ModelAndView panel(HttpServletRequest request, HttpServletResponse response, HttpSession session) {
+        Cart cart = cartStore.get(cartId(request, response));
+        ModelAndView mav = new ModelAndView("cart-panel :: panel");
+        mav.addObject("cart", cartItems(cart));
+        mav.addObject("cartTotal", Money.format(cart.getTotal()));
+        mav.addObject("cartVersion", cart.getVersion());
+        mav.addObject("currentUser", session.getAttribute("currentUser"));
+        return mav;
+    }
+
     @PostMapping("/add")
-    public Map<String, Object> addToCart(@RequestBody Map<String, String> request, HttpSession session) {
+    public Map<String, Object> addToCart(@RequestBody Map<String, Object> request,
+                                         HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
         Map<String, Object> response = new HashMap<>();
-        String foodName = request.get("name");
-        
-        // 从数据库获取食品信息
-        food foodItem = foodMp.findByName(foodName);
+        Integer foodId = parseInteger(request.get("id"));
+
+        // 从菜单目录快照获取食品信息
+        food foodItem = foodId == null ? null : catalogService.findById(foodId);
         if (foodItem == null) {
             response.put("success", false);
             return response;
         }
 
-        // 获取或创建购物车
-        List<CartItem> cart = (List<CartItem>) session.getAttribute("cart");
-        if (cart == null) {
-            cart = new ArrayList<>();
+        // 一个购物车只能包含同一餐厅的菜品，订单按餐厅归属
+        String cartId = writableCartId(httpRequest, httpResponse);
+        Cart cart = cartStore.get(cartId);
+        if (!cart.isEmpty() && cart.getRestaurantId() != foodItem.getRestaurantId()) {
+            response.put("success", false);
+            response.put("message", OTHER_RESTAURANT);
+            return response;
         }
 
-        // 检查商品是否已在购物车中
-        boolean found = false;
-        for (CartItem item : cart) {
-            if (item.getName().equals(foodName)) {
-                item.setQuantity(item.getQuantity() + 1);
-                found = true;
-                break;
-            }
+        // 预占库存，购物车闲置超时后自动归还
+        if (!inventoryService.reserve(cartId, foodId, 1)) {
+            response.put("success", false);
+            response.put("message", "库存不足");
+            return response;
         }
 
-        // 如果是新商品，添加到购物车
-        if (!found) {
-            cart.add(new CartItem(foodName, 1, foodItem.getPrice()));
+        cart = cartStore.add(cartId, foodId, 1, foodItem.getPrice(), foodItem.getRestaurantId());
+        if (cart.getRestaurantId() != foodItem.getRestaurantId()) {
+            // 并发请求先加入了其他餐厅的菜品
+            inventoryService.release(cartId, foodId, 1);
+            response.put("success", false);
+            response.put("message", OTHER_RESTAURANT);
+            return response;
         }
 
-        // 更新购物车总金额
-        updateCartTotal(session, cart);
+        // 计入热门菜品统计，只写内存
+        trendingService.recordAdd(foodId);
 
-        // 保存购物车到会话
-        session.setAttribute("cart", cart);
-        
         response.put("success", true);
         return response;
     }
 
     @PostMapping("/remove")
-    public Map<String, Object> removeFromCart(@RequestBody Map<String, String> request, HttpSession session) {
+    public Map<String, Object> removeFromCart(@RequestBody Map<String, Object> request,
+                                              HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
         Map<String, Object> response = new HashMap<>();
-        String foodName = request.get("name");
-        
-        List<CartItem> cart = (List<CartItem>) session.getAttribute("cart");
-        if (cart != null) {
-            cart.removeIf(item -> item.getName().equals(foodName));
-            updateCartTotal(session, cart);
-            session.setAttribute("cart", cart);
-        }
-        
+        Integer foodId = parseInteger(request.get("id"));
+
+        if (foodId != null) {
+            String cartId = writableCartId(httpRequest, httpResponse);
+            cartStore.remove(cartId, foodId);
+            inventoryService.release(cartId, foodId, Integer.MAX_VALUE);
+        }
+
         response.put("success", true);
         return response;
     }
 
     @PostMapping("/update")
-    public Map<String, Object> updateQuantity(@RequestBody Map<String, Object> request, HttpSession session) {
+    public Map<String, Object> updateQuantity(@RequestBody Map<String, Object> request,
+                                              HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
         Map<String, Object> response = new HashMap<>();
-        String foodName = (String) request.get("name");
+        Integer foodId = parseInteger(request.get("id"));
         int change = (int) request.get("change");
-        
-        List<CartItem> cart = (List<CartItem>) session.getAttribute("cart");
-        if (cart != null) {
-            for (CartItem item : cart) {
-                if (item.getName().equals(foodName)) {
-                    int newQuantity = item.getQuantity() + change;
-                    if (newQuantity > 0) {
-                        item.setQuantity(newQuantity);
-                    } else {
-                        cart.remove(item);
-                    }
-                    break;
+
+        String cartId = writableCartId(httpRequest, httpResponse);
+        if (foodId != null && change != 0) {
+            // 与/cart/batch相同：按执行前的读取预占，执行后按实际变化补齐或归还；
+            // 该行期间被删除或购物车已被结算认领时实际变化为0，预占全部归还
+            List<CartOp> ops = List.of(CartOp.adjust(foodId, change));
+            int expected = netChanges(cartStore.get(cartId), ops).getOrDefault(foodId, 0);
+            Map<Integer, Integer> reserved = new LinkedHashMap<>();
+            if (expected > 0) {
+                if (!inventoryService.reserve(cartId, foodId, expected)) {
+                    response.put("success", false);
+                    response.put("message", "库存不足");
+                    return response;
                 }
+                reserved.put(foodId, expected);
             }
-            updateCartTotal(session, cart);
-            session.setAttribute("cart", cart);
+            Cart cart = cartStore.apply(cartId, ops);
+            reconcileReservations(cartId, reserved, cart == null ? Map.of() : cart.getQuantityChanges());
         }
-        
+
         response.put("success", true);
         return response;
     }
 
+    /**
+     * 批量修改购物车：按顺序执行一组操作，整体生效或整体不生效，返回修改后的购物车及版本号
+     * 请求体如 {"version": 3, "ops": [{"op": "add", "id": 1, "quantity": 2}, {"op": "update", "id": 1, "change": -1}, {"op": "remove", "id": 2}]}，
+     * 前端可以把短时间内的多次点击合并为一次请求；
+     * version为客户端看到的版本号，可省略。已过期时数量增减合并到最新购物车上，含删除时返回conflict和最新购物车
+     */
+    @PostMapping("/batch")
+    public Map<String, Object> batch(@RequestBody Map<String, Object> request,
+                                     HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
+        Map<String, Object> response = new HashMap<>();
+        List<CartOp> ops;
+        long expectedVersion;
+        try {
+            ops = parseOps(request.get("ops"));
+            expectedVersion = parseVersion(request.get("version"));
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return response;
+        }
+
+        // 按预计净增加的数量预占库存，任一菜品不足时整批不生效；
+        // 预计值基于执行前的读取，可能与实际不同，执行后按实际变化补齐或归还
+        String cartId = writableCartId(httpRequest, httpResponse);
+        Map<Integer, Integer> changes = netChanges(cartStore.get(cartId), ops);
+        Map<Integer, Integer> reserved = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> change : changes.entrySet()) {
+            if (change.getValue() <= 0) {
+                continue;
+            }
+            if (!inventoryService.reserve(cartId, change.getKey(), change.getValue())) {
+                reserved.forEach((foodId, quantity) -> inventoryService.release(cartId, foodId, quantity));
+                response.put("success", false);
+                response.put("message", "库存不足");
+                response.put("soldOut", List.of(change.getKey()));
+                return response;
+            }
+            reserved.put(change.getKey(), change.getValue());
+        }
+
+        Cart cart;
+        try {
+            cart = cartStore.apply(cartId, ops, expectedVersion);
+        } catch (CartVersionConflictException e) {
+            reserved.forEach((foodId, quantity) -> inventoryService.release(cartId, foodId, quantity));
+            response.put("success", false);
+            response.put("conflict", true);
+            response.put("message", "购物车已在其他页面修改，请确认后重试");
+            putCart(response, e.getCurrent());
+            return response;
+        }
+        if (cart == null) {
+            reserved.forEach((foodId, quantity) -> inventoryService.release(cartId, foodId, quantity));
+            response.put("success", false);
+            response.put("message", OTHER_RESTAURANT);
+            return response;
+        }
+        reconcileReservations(cartId, reserved, cart.getQuantityChanges());
+        for (CartOp op : ops) {
+            if (op.type() == CartOp.Type.ADD) {
+                trendingService.recordAdd(op.foodId());
+            }
+        }
+
+        response.put("success", true);
+        putCart(response, cart);
+        return response;
+    }
+
     @PostMapping("/checkout")
-    public Map<String, Object> checkout(HttpSession session) {
+    public Map<String, Object> checkout(HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
         Map<String, Object> response = new HashMap<>();
-        
-        // 清空购物车
-        session.removeAttribute("cart");
-        session.removeAttribute("cartTotal");
-        
+
+        String cartId = writableCartId(httpRequest, httpResponse);
+        Cart cart = cartStore.get(cartId);
+        if (!cart.isEmpty()) {
+            // 一次IN查询按数据库最新数据重新校验整个购物车
+            Set<Integer> ids = new LinkedHashSet<>();
+            for (CartLine line : cart.getLines()) {
+                ids.add(line.foodId());
+            }
+            Map<Integer, food> latest = new HashMap<>();
+            for (food item : foodMp.findByIds(ids)) {
+                latest.put(item.getId(), item);
+            }
+
+            List<Integer> unavailable = new ArrayList<>();
+            Map<Integer, Long> prices = new HashMap<>();
+            for (Integer foodId : ids) {
+                food current = latest.get(foodId);
+                if (current == null) {
+                    unavailable.add(foodId);
+                } else {
+                    prices.put(foodId, current.getPrice());
+                }
+            }
+
+            if (!unavailable.isEmpty()) {
+                // 移除已下架的菜品，由用户确认后重新结算
+                for (Integer foodId : unavailable) {
+                    cartStore.remove(cartId, foodId);
+                    inventoryService.release(cartId, foodId, Integer.MAX_VALUE);
+                }
+                response.put("success", false);
+                response.put("message", "部分菜品已下架，请确认后重新结算");
+                response.put("unavailable", unavailable);
+                return response;
+            }
+            cart = cartStore.reprice(cartId, prices);
+
+            // 预占转为售出；预占已过期的菜品重新预占，库存不足时保留购物车由用户调整
+            Map<Integer, Integer> quantities = new LinkedHashMap<>();
+            List<CartItem> items = new ArrayList<>(cart.size());
+            for (CartLine line : cart.getLines()) {
+                quantities.put(line.foodId(), line.quantity());
+                items.add(new CartItem(line.foodId(), latest.get(line.foodId()).getName(), line.quantity(),
+                        line.unitPrice(), cart.getRestaurantId()));
+            }
+            // 按计价后的版本认领购物车：期间被修改过或已被另一个结算请求认领时不结算，
+            // 既不会清掉刚加入的菜品，也不会重复下单
+            if (!cartStore.clear(cartId, cart.getVersion())) {
+                response.put("success", false);
+                response.put("conflict", true);
+                response.put("message", "购物车已在其他页面修改，请确认后重新结算");
+                putCart(response, cartStore.get(cartId));
+                return response;
+            }
+            List<Integer> soldOut;
+            try {
+                soldOut = inventoryService.confirm(cartId, quantities);
+            } catch (RuntimeException e) {
+                // 扣减库存时数据库出错，库存未扣减，放回购物车
+                restore(cartId, cart);
+                throw e;
+            }
+            if (!soldOut.isEmpty()) {
+                // 未转为售出，预占仍在，把购物车放回去由用户调整
+                restore(cartId, cart);
+                response.put("success", false);
+                response.put("message", "部分菜品库存不足，请调整数量后重新结算");
+                response.put("soldOut", soldOut);
+                return response;
+            }
+
+            FoodOrder order;
+            try {
+                order = orderService.placeOrder(items, cart.getTotal());
+            } catch (RuntimeException e) {
+                // 库存已在单独的事务中扣减，订单写入失败时加回库存并放回购物车
+                inventoryService.cancel(cartId, quantities);
+                restore(cartId, cart);
+                throw e;
+            }
+            response.put("orderId", order.getId());
+            response.put("total", cart.getTotal());
+            response.put("totalText", Money.format(cart.getTotal()));
+        }
+
         response.put("success", true);
         return response;
     }
 
-    private void updateCartTotal(HttpSession session, List<CartItem> cart) {
-        double total = 0;
-        for (CartItem item : cart) {
-            total += item.getPrice() * item.getQuantity();
+    /**
+     * 把已认领的购物车内容重新加入；期间已加入其他餐厅的菜品时无法放回，只记录日志
+     */
+    private void restore(String cartId, Cart claimed) {
+        List<CartOp> ops = new ArrayList<>(claimed.size());
+        for (CartLine line : claimed.getLines()) {
+            ops.add(CartOp.add(line.foodId(), line.quantity(), line.unitPrice(), claimed.getRestaurantId()));
+        }
+        if (cartStore.apply(cartId, ops) == null) {
+            log.warn("结算失败后无法放回购物车 {} 的菜品: {}", cartId, claimed.getLines());
+        }
+    }
+
+    /**
+     * 购物车ID保存在Cookie中，与会话无关，请求可以落到任一节点
+     */
+    private String cartId(HttpServletRequest request, HttpServletResponse response) {
+        Cookie cookie = WebUtils.getCookie(request, CART_COOKIE);
+        if (cookie != null && CART_ID_PATTERN.matcher(cookie.getValue()).matches()) {
+            return cookie.getValue();
+        }
+        String cartId = UUID.randomUUID().toString().replace("-", "");
+        issueCookie(response, cartId);
+        return cartId;
+    }
+
+    /**
+     * 写购物车时使用：存储端的过期时间在每次写入时顺延，Cookie也随之重新下发，
+     * 否则Cookie按创建时间过期，仍在使用的购物车会被丢掉
+     */
+    private String writableCartId(HttpServletRequest request, HttpServletResponse response) {
+        Cookie cookie = WebUtils.getCookie(request, CART_COOKIE);
+        if (cookie != null && CART_ID_PATTERN.matcher(cookie.getValue()).matches()) {
+            issueCookie(response, cookie.getValue());
+            return cookie.getValue();
+        }
+        return cartId(request, response);
+    }
+
+    private void issueCookie(HttpServletResponse response, String cartId) {
+        Cookie cookie = new Cookie(CART_COOKIE, cartId);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.min(cartTtlMinutes * 60, Integer.MAX_VALUE));
+        response.addCookie(cookie);
+    }
+
+    private void putCart(Map<String, Object> response, Cart cart) {
+        response.put("version", cart.getVersion());
+        response.put("items", cartItems(cart));
+        response.put("total", cart.getTotal());
+        response.put("totalText", Money.format(cart.getTotal()));
+    }
+
+    private List<CartItem> cartItems(Cart cart) {
+        return cartItems(cart.getLines(), cart.getRestaurantId());
+    }
+
+    private List<CartItem> cartItems(Collection<CartLine> lines, int restaurantId) {
+        List<CartItem> items = new ArrayList<>(lines.size());
+        for (CartLine line : lines) {
+            food item = catalogService.findById(line.foodId());
+            items.add(new CartItem(line.foodId(), item == null ? "已下架" : item.getName(), line.quantity(),
+                    line.unitPrice(), restaurantId));
+        }
+        return items;
+    }
+
+    /**
+     * 解析批量操作，加入的菜品按目录快照取单价和餐厅
+     *
+     * @throws IllegalArgumentException 格式错误、操作过多或菜品不存在
+     */
+    private List<CartOp> parseOps(Object value) {
+        if (!(value instanceof List<?> list) || list.isEmpty()) {
+            throw new IllegalArgumentException("操作列表不能为空");
+        }
+        if (list.size() > MAX_BATCH_OPS) {
+            throw new IllegalArgumentException("单次最多" + MAX_BATCH_OPS + "个操作");
+        }
+        List<CartOp> ops = new ArrayList<>(list.size());
+        for (Object element : list) {
+            if (!(element instanceof Map<?, ?> op)) {
+                throw new IllegalArgumentException("操作格式错误");
+            }
+            Integer foodId = parseInteger(op.get("id"));
+            if (foodId == null) {
+                throw new IllegalArgumentException("操作缺少菜品ID");
+            }
+            String type = String.valueOf(op.get("op"));
+            switch (type) {
+                case "add" -> {
+                    food item = catalogService.findById(foodId);
+                    if (item == null) {
+                        throw new IllegalArgumentException("菜品不存在: " + foodId);
+                    }
+                    Integer quantity = op.containsKey("quantity") ? parseInteger(op.get("quantity")) : Integer.valueOf(1);
+                    if (quantity == null || quantity <= 0) {
+                        throw new IllegalArgumentException("加入数量必须大于0");
+                    }
+                    ops.add(CartOp.add(foodId, quantity, item.getPrice(), item.getRestaurantId()));
+                }
+                case "update" -> {
+                    Integer change = parseInteger(op.get("change"));
+                    if (change == null) {
+                        throw new IllegalArgumentException("操作缺少数量变化");
+                    }
+                    ops.add(CartOp.adjust(foodId, change));
+                }
+                case "remove" -> ops.add(CartOp.remove(foodId));
+                default -> throw new IllegalArgumentException("未知操作: " + type);
+            }
+        }
+        return ops;
+    }
+
+    /**
+     * 客户端看到的版本号，省略时返回-1表示不检查
+     */
+    private long parseVersion(Object value) {
+        if (value == null) {
+            return -1;
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return Long.parseLong(String.valueOf(value).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("版本号格式错误");
+        }
+    }
+
+    /**
+     * 按apply在临界区内得到的实际数量变化调整预占：实际增加多于已预占的补预占，少于的归还多出部分，减少的归还；
+     * 补预占时库存不足不回滚购物车，结算时confirm会重新校验
+     */
+    private void reconcileReservations(String cartId, Map<Integer, Integer> reserved, Map<Integer, Integer> actual) {
+        Set<Integer> foodIds = new LinkedHashSet<>(reserved.keySet());
+        foodIds.addAll(actual.keySet());
+        for (Integer foodId : foodIds) {
+            int change = actual.getOrDefault(foodId, 0);
+            int missing = Math.max(change, 0) - reserved.getOrDefault(foodId, 0);
+            if (missing > 0) {
+                inventoryService.reserve(cartId, foodId, missing);
+            } else if (missing < 0) {
+                inventoryService.release(cartId, foodId, -missing);
+            }
+            if (change < 0) {
+                inventoryService.release(cartId, foodId, -change);
+            }
+        }
+    }
+
+    /**
+     * 按当前购物车推算一组操作执行后每个菜品的数量变化，规则与购物车存储一致，只用于执行前预占
+     */
+    private static Map<Integer, Integer> netChanges(Cart cart, List<CartOp> ops) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (CartOp op : ops) {
+            int current = quantities.getOrDefault(op.foodId(), cart.quantity(op.foodId()));
+            int next = switch (op.type()) {
+                case ADD -> current + op.quantity();
+                case ADJUST -> current > 0 ? Math.max(current + op.quantity(), 0) : current;
+                case REMOVE -> 0;
+            };
+            quantities.put(op.foodId(), next);
+        }
+        Map<Integer, Integer> changes = new LinkedHashMap<>();
+        quantities.forEach((foodId, quantity) -> {
+            int change = quantity - cart.quantity(foodId);
+            if (change != 0) {
+                changes.put(foodId, change);
+            }
+        });
+        return changes;
+    }
+
+    private Integer parseInteger(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Integer.parseInt(((String) value).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
         }
-        session.setAttribute("cartTotal", total);
+        return null;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package com.example.demo1.Controller;
+
+import com.example.demo1.dto.ImportResult;
+import com.example.demo1.service.CatalogImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 菜单管理接口
+ */
+@RestController
+@RequestMapping("/admin/catalog")
+public class CatalogAdminController {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    /**
+     * 上传文件导入菜单，按文件扩展名区分CSV和JSON
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ImportResult importFile(@RequestPart("file") MultipartFile file,
+                                   @RequestParam(defaultValue = "0") int batchSize) throws IOException {
+        String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+        // 大文件由容器暂存到磁盘，这里只按流读取
+        try (InputStream in = file.getInputStream()) {
+            return filename.endsWith(".json")
+                    ? catalogImportService.importJson(in, batchSize)
+                    : catalogImportService.importCsv(in, batchSize);
+        }
+    }
+
+    /**
+     * 直接以请求体上传CSV，不经过multipart解析
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ImportResult importCsv(HttpServletRequest request,
+                                  @RequestParam(defaultValue = "0") int batchSize) throws IOException {
+        return catalogImportService.importCsv(request.getInputStream(), batchSize);
+    }
+
+    /**
+     * 直接以请求体上传JSON数组
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ImportResult importJson(HttpServletRequest request,
+                                   @RequestParam(defaultValue = "0") int batchSize) throws IOException {
+        return catalogImportService.importJson(request.getInputStream(), batchSize);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo1.Controller;
+
+import com.example.demo1.catalog.CatalogJsonCache;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.catalog.CatalogSort;
+import com.example.demo1.catalog.FoodField;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import com.example.demo1.service.CatalogService;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+
+/**
+ * 面向App客户端的菜单JSON接口
+ */
+@RestController
+@RequestMapping("/api/food")
+public class FoodApiController {
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private CatalogJsonCache catalogJsonCache;
+
+    /**
+     * 菜单JSON，fields指定输出字段（如 fields=id,name,price），默认全部字段
+     * 不带分页和过滤参数时返回全量菜单的预序列化结果；否则按/food/page的参数分页，直接写入响应流
+     */
+    @GetMapping
+    public void list(@RequestParam(required = false) String fields, CatalogQuery query,
+                     @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                     WebRequest webRequest, HttpServletResponse response) throws IOException {
+        int mask = FoodField.parseMask(fields);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePublic().getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // 客户端轮询时大多数请求在这里以304结束；ETag取自实际应答的快照，快照落后于目标版本时不做条件请求
+        // 按供应时段过滤的结果随时段变化，ETag带上时段且不按修改时间判断
+        int slot = query.pinAvailabilitySlot();
+        CatalogSnapshot snap = catalogService.snapshot();
+        if (query.sortOrder() != CatalogSort.HOT && snap.getVersion() >= catalogService.version()) {
+            String etag = "W/\"catalog-" + snap.getVersion() + "-" + mask + (slot < 0 ? "" : "-s" + slot) + "\"";
+            if (slot < 0 ? webRequest.checkNotModified(etag, snap.getLoadedAt()) : webRequest.checkNotModified(etag)) {
+                return;
+            }
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        if (isPaged(query)) {
+            CatalogPage page = catalogService.page(snap, query);
+            ServletOutputStream out = response.getOutputStream();
+            catalogJsonCache.writeMenu(out, page.getVersion(), page.getItems(), mask,
+                    page.getNextCursor(), page.isHasMore());
+            return;
+        }
+
+        CatalogJsonCache.MenuJson json = catalogJsonCache.fullMenu(snap, mask);
+        byte[] body = json.raw();
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = json.gzip();
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean isPaged(CatalogQuery query) {
+        return query.getCursor() != null || query.getSize() != null || query.getSort() != null || query.hasFilter();
+    }
+}
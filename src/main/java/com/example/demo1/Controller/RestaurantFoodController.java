@@ -0,0 +1,83 @@
+package com.example.demo1.Controller;
+
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.catalog.CatalogSort;
+import com.example.demo1.catalog.MenuFragmentCache;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import com.example.demo1.service.CatalogService;
+import com.example.demo1.service.RestaurantCatalogService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Locale;
+
+/**
+ * 单个餐厅的菜单，查询只读取该餐厅的分区快照，菜单片段也缓存在该餐厅自己的分区中
+ */
+@Controller
+@RequestMapping("/r/{restaurantId}/food")
+public class RestaurantFoodController {
+
+    @Autowired
+    RestaurantCatalogService restaurantCatalogService;
+
+    @Autowired
+    CatalogService catalogService;
+
+    @Autowired
+    MenuFragmentCache menuFragmentCache;
+
+    /**
+     * 与/food/list相同的缓存策略，ETag取自该餐厅的分区快照并带上餐厅ID，其他餐厅的变更不会使其失效
+     */
+    @GetMapping("list")
+    public String list(@PathVariable int restaurantId, CatalogQuery query, Model model, WebRequest webRequest,
+                       Locale locale, HttpServletRequest request, HttpServletResponse response) {
+        int slot = query.pinAvailabilitySlot();
+        CatalogSnapshot snap = restaurantCatalogService.snapshot(restaurantId);
+        if (query.sortOrder() != CatalogSort.HOT && checkNotModified(webRequest, response, restaurantId, snap,
+                "-r" + restaurantId + (slot < 0 ? "" : "-s" + slot), slot < 0)) {
+            return null;
+        }
+        CatalogPage page = catalogService.page(snap, query);
+        model.addAttribute("menuGrid", menuFragmentCache.render(restaurantId, page, query, locale));
+        model.addAttribute("query", query);
+        model.addAttribute("listUrl", "/r/" + restaurantId + "/food/list");
+        model.addAttribute("nextPageUrl", page.isHasMore() ? foodController.nextPageUrl(request, page.getNextCursor()) : null);
+        return "foods";
+    }
+
+    /**
+     * 餐厅菜单分页查询（JSON），参数与/food/page一致
+     */
+    @GetMapping("page")
+    @ResponseBody
+    public CatalogPage page(@PathVariable int restaurantId, CatalogQuery query) {
+        return restaurantCatalogService.page(restaurantId, query);
+    }
+
+    /**
+     * 分区快照落后于该餐厅的菜单版本时不做条件请求，见foodController
+     */
+    private boolean checkNotModified(WebRequest webRequest, HttpServletResponse response, int restaurantId,
+                                     CatalogSnapshot snap, String suffix, boolean useLastModified) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePublic().getHeaderValue());
+        if (snap.getVersion() < catalogService.restaurantVersion(restaurantId)) {
+            return false;
+        }
+        String etag = foodController.catalogEtag(snap, suffix);
+        return useLastModified ? webRequest.checkNotModified(etag, snap.getLoadedAt())
+                : webRequest.checkNotModified(etag);
+    }
+}
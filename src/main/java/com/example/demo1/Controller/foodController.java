@@ -1,42 +1,237 @@
 package com.example.demo1.Controller;
 import com.example.demo1.Entity.food;
-import com.example.demo1.Mapper.foodMapper;
-import jakarta.servlet.http.HttpSession;
+import com.example.demo1.cart.CartStore;
+import com.example.demo1.catalog.CatalogJsonCache;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.catalog.CatalogSort;
+import com.example.demo1.catalog.MenuFragmentCache;
+import com.example.demo1.datasource.ReadWriteRoutingDataSource;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import com.example.demo1.dto.CompanionItem;
+import com.example.demo1.dto.TrendingItem;
+import com.example.demo1.service.impl.TrendingServiceImpl;
+import com.example.demo1.service.CatalogService;
+import com.example.demo1.service.InventoryService;
+import com.example.demo1.service.RecommendationService;
+import com.example.demo1.service.RestaurantCatalogService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/food")
 public class foodController {
     @Autowired
-    foodMapper foodMp;
+    CatalogService catalogService;
 
+    @Autowired
+    MenuFragmentCache menuFragmentCache;
+
+    @Autowired
+    CatalogJsonCache catalogJsonCache;
+
+    @Autowired
+    RecommendationService recommendationService;
+
+    @Autowired
+    InventoryService inventoryService;
+
+    @Autowired
+    RestaurantCatalogService restaurantCatalogService;
+
+    @Autowired
+    CartStore cartStore;
+
+    /**
+     * 未启用读写分离时为null
+     */
+    @Autowired(required = false)
+    ReadWriteRoutingDataSource routingDataSource;
+
+    /**
+     * 菜单页不含任何会话数据（购物车和当前用户由/cart/panel单独加载），
+     * 因此可按目录版本做条件请求，未变化时直接返回304，不查询也不渲染；
+     * 热度排序的结果不由目录版本决定，不做条件请求；按供应时段过滤时ETag带上时段，换时段后重新获取
+     */
     @RequestMapping("list")
-    public String list(Model model, HttpSession session) {
-        List<food> foodList = foodMp.findAll();
-        model.addAttribute("foodList", foodList);
-        
-        // 添加购物车信息到模型
-        model.addAttribute("cart", session.getAttribute("cart"));
-        model.addAttribute("cartTotal", session.getAttribute("cartTotal"));
-        
-        // 添加当前用户信息
-        model.addAttribute("currentUser", session.getAttribute("currentUser"));
+    public String list(CatalogQuery query, Model model, WebRequest webRequest, Locale locale,
+                       HttpServletRequest request, HttpServletResponse response) {
+        int slot = query.pinAvailabilitySlot();
+        CatalogSnapshot snap = catalogService.snapshot();
+        if (query.sortOrder() != CatalogSort.HOT
+                && checkNotModified(webRequest, response, snap, slot < 0 ? "" : "-s" + slot, slot < 0)) {
+            return null;
+        }
+        CatalogPage page = catalogService.page(snap, query);
+        model.addAttribute("menuGrid", menuFragmentCache.render(page, query, locale));
+        model.addAttribute("query", query);
+        model.addAttribute("listUrl", "/food/list");
+        model.addAttribute("nextPageUrl", page.isHasMore() ? nextPageUrl(request, page.getNextCursor()) : null);
         return "foods";
     }
 
+    /**
+     * 菜单分页查询（JSON），参数与/food/list一致
+     */
+    @GetMapping("page")
+    @ResponseBody
+    public CatalogPage page(CatalogQuery query) {
+        return catalogService.page(query);
+    }
+
+    /**
+     * 菜品全文检索，基于内存倒排索引，不访问数据库
+     */
+    @GetMapping("search")
+    @ResponseBody
+    public Map<String, Object> search(@RequestParam("q") String q,
+                                      @RequestParam(defaultValue = "20") int limit) {
+        long start = System.nanoTime();
+        List<food> items = catalogService.search(q, Math.min(Math.max(limit, 1), CatalogQuery.MAX_SIZE));
+        Map<String, Object> response = new HashMap<>();
+        response.put("query", q);
+        response.put("items", items);
+        response.put("tookMicros", (System.nanoTime() - start) / 1000);
+        return response;
+    }
+
+    /**
+     * 菜名输入联想，基于内存前缀树
+     */
+    @GetMapping("suggest")
+    @ResponseBody
+    public List<food> suggest(@RequestParam String prefix,
+                              @RequestParam(defaultValue = "10") int limit) {
+        return catalogService.suggest(prefix, Math.min(Math.max(limit, 1), CatalogQuery.MAX_SIZE));
+    }
+
+    /**
+     * 最近一段时间内加购次数最多的菜品
+     */
+    @GetMapping("trending")
+    @ResponseBody
+    public List<TrendingItem> trending(@RequestParam(defaultValue = "10") int limit) {
+        return catalogService.trending(Math.min(Math.max(limit, 1), TrendingServiceImpl.MAX_TOP));
+    }
+
+    /**
+     * 经常与该菜品一起下单的菜品
+     */
+    @GetMapping("{id}/companions")
+    @ResponseBody
+    public List<CompanionItem> companions(@PathVariable int id, @RequestParam(defaultValue = "5") int limit) {
+        return recommendationService.companions(id, Math.min(Math.max(limit, 1), CatalogQuery.MAX_SIZE));
+    }
+
+    /**
+     * 菜品当前可售数量，-1表示不限量；库存随加购实时变化，不做缓存
+     */
+    @GetMapping("{id}/stock")
+    @ResponseBody
+    public Map<String, Object> stock(@PathVariable int id) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", id);
+        result.put("available", inventoryService.available(id));
+        return result;
+    }
+
     @RequestMapping("detail")
-    public String detail(@RequestParam String name, Model model) {
-        food food = foodMp.findByName(name);
+    public String detail(@RequestParam(required = false) Integer id,
+                         @RequestParam(required = false) String name, Model model,
+                         WebRequest webRequest, HttpServletResponse response) {
+        CatalogSnapshot snap = catalogService.snapshot();
+        if (checkNotModified(webRequest, response, snap, id != null ? "-" + id : "", true)) {
+            return null;
+        }
+        // 优先按主键查询，name参数仅为兼容旧链接保留
+        food food = id != null ? snap.findById(id) : snap.findByName(name);
         if (food == null) {
-            throw new RuntimeException("Food not found with name: " + name);
+            throw new RuntimeException("Food not found with " + (id != null ? "id: " + id : "name: " + name));
         }
         model.addAttribute("food", food);
         return "food";
     }
-}
 
+    /**
+     * 菜单目录缓存统计
+     */
+    @GetMapping("catalog/stats")
+    @ResponseBody
+    public Map<String, Object> catalogStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(catalogService.stats());
+        stats.putAll(menuFragmentCache.stats());
+        stats.putAll(catalogJsonCache.stats());
+        stats.putAll(recommendationService.stats());
+        stats.putAll(inventoryService.stats());
+        stats.putAll(cartStore.stats());
+        stats.putAll(restaurantCatalogService.stats());
+        if (routingDataSource != null) {
+            stats.putAll(routingDataSource.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * 手动导入菜单后通知目录重新加载；指定餐厅时只有该餐厅的分区重新加载
+     */
+    @PostMapping("catalog/refresh")
+    @ResponseBody
+    public Map<String, Object> refreshCatalog(@RequestParam(required = false) Integer restaurantId) {
+        long version = restaurantId == null ? catalogService.markChanged()
+                : catalogService.markChanged(List.of(restaurantId));
+        return Map.of("success", true, "version", version);
+    }
+
+    /**
+     * 弱ETag只由快照版本决定，同一版本下同一URL的输出不变
+     */
+    static String catalogEtag(CatalogSnapshot snap, String suffix) {
+        return "W/\"catalog-" + snap.getVersion() + suffix + "\"";
+    }
+
+    /**
+     * 设置缓存策略并按实际应答所用快照校验If-None-Match/If-Modified-Since，命中时响应已被置为304；
+     * 快照落后于目标版本（刷新未抢到锁或刷新失败）时不做条件请求，也不下发ETag，避免旧内容被当作新版本缓存；
+     * 内容还随时间变化时不能只凭修改时间判断，只校验ETag
+     */
+    private boolean checkNotModified(WebRequest webRequest, HttpServletResponse response, CatalogSnapshot snap,
+                                     String suffix, boolean useLastModified) {
+        // 允许浏览器和代理缓存，但每次都需重新验证
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePublic().getHeaderValue());
+        if (snap.getVersion() < catalogService.version()) {
+            return false;
+        }
+        String etag = catalogEtag(snap, suffix);
+        return useLastModified ? webRequest.checkNotModified(etag, snap.getLoadedAt())
+                : webRequest.checkNotModified(etag);
+    }
+
+    /**
+     * 保留当前过滤和排序参数，仅替换游标；查询串来自请求本身已经过编码，游标只含数字、负号和冒号
+     */
+    static String nextPageUrl(HttpServletRequest request, String cursor) {
+        return UriComponentsBuilder.fromPath(request.getRequestURI())
+                .query(request.getQueryString())
+                .replaceQueryParam("cursor", cursor)
+                .build(true)
+                .toUriString();
+    }
+}
@@ -4,13 +4,21 @@ import lombok.Data;
 
 @Data
 public class CartItem {
+    private int foodId;
     private String name;
     private int quantity;
-    private double price;
+    private long price;     // 单价，单位为分
+    private int restaurantId = 1;
 
-    public CartItem(String name, int quantity, double price) {
+    public CartItem(int foodId, String name, int quantity, long price) {
+        this.foodId = foodId;
         this.name = name;
         this.quantity = quantity;
         this.price = price;
     }
-} 
\ No newline at end of file
+
+    public CartItem(int foodId, String name, int quantity, long price, int restaurantId) {
+        this(foodId, name, quantity, price);
+        this.restaurantId = restaurantId;
+    }
+} 
@@ -0,0 +1,40 @@
+package com.example.demo1.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 订单实体类 - 购物车结算成功后生成
+ */
+@Data
+@Entity
+@Table(name = "food_orders", indexes = @Index(name = "idx_food_orders_restaurant", columnList = "restaurant_id, created_at"))
+public class FoodOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 订单总金额，单位为分；旧的按元保存的total列不再写入
+     */
+    @Column(name = "total_fen")
+    private Long total;
+
+    /**
+     * 所属餐厅ID，一个订单只包含同一餐厅的菜品
+     */
+    @Column(name = "restaurant_id")
+    private Integer restaurantId;
+
+    /**
+     * 下单时间
+     */
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public FoodOrder() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo1.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * 订单明细实体类
+ */
+@Data
+@Entity
+@Table(name = "order_items", indexes = @Index(name = "idx_order_items_order_id", columnList = "order_id"))
+public class OrderItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 订单ID
+     */
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    /**
+     * 菜品ID
+     */
+    @Column(name = "food_id", nullable = false)
+    private Integer foodId;
+
+    /**
+     * 菜品名称（下单时）
+     */
+    @Column(name = "name", length = 255)
+    private String name;
+
+    /**
+     * 数量
+     */
+    @Column(name = "quantity")
+    private Integer quantity;
+
+    /**
+     * 单价（下单时），单位为分
+     */
+    @Column(name = "price_fen")
+    private Long price;
+}
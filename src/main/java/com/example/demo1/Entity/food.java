@@ -5,10 +5,14 @@ import lombok.Data;
 @Data
 public class food {
     private int id;         // 菜品ID
-    private int price;      // 价格
+    private long price;     // 价格，单位为分，见Money
     private int level;      // 等级
     private String name;    // 菜品名称
     private String info;    // 菜品描述
+    private Integer stock;  // 库存，null表示不限量
+    private Integer availableFrom;  // 供应开始时刻，当天分钟数，null表示全天
+    private Integer availableTo;    // 供应结束时刻（不含），小于开始时刻表示跨过零点
+    private int restaurantId = 1;   // 所属餐厅ID，单店部署时都为1
 
     // Getters and Setters
     public int getId() {
@@ -35,11 +39,11 @@ public class food {
         this.info = info;
     }
 
-    public int getPrice() {
+    public long getPrice() {
         return price;
     }
 
-    public void setPrice(int price) {
+    public void setPrice(long price) {
         this.price = price;
     }
 
@@ -50,4 +54,36 @@ public class food {
     public void setLevel(int level) {
         this.level = level;
     }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public Integer getAvailableFrom() {
+        return availableFrom;
+    }
+
+    public void setAvailableFrom(Integer availableFrom) {
+        this.availableFrom = availableFrom;
+    }
+
+    public Integer getAvailableTo() {
+        return availableTo;
+    }
+
+    public void setAvailableTo(Integer availableTo) {
+        this.availableTo = availableTo;
+    }
+
+    public int getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(int restaurantId) {
+        this.restaurantId = restaurantId;
+    }
 }
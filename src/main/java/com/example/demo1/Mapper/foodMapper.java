@@ -1,18 +1,66 @@
 package com.example.demo1.Mapper;
 import com.example.demo1.Entity.food;
+import com.example.demo1.datasource.ReadOnlyQuery;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
 public interface foodMapper {
     @Select("SELECT name FROM food")
+    @ReadOnlyQuery
     List<String> findAllNames();
 
     @Select("SELECT * FROM food WHERE name = #{name}")
+    @ReadOnlyQuery
     food findByName(String name);
 
+    @Select("SELECT * FROM food WHERE id = #{id}") // 根据主键查询
+    @ReadOnlyQuery
+    food findById(int id);
+
+    // 批量按主键查询，一次IN查询代替N次单条查询；ids不能为空
+    @Select({"<script>",
+            "SELECT * FROM food WHERE id IN",
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"})
+    List<food> findByIds(@Param("ids") Collection<Integer> ids);
+
+    // 用于重建目录快照，必须读主库：快照按版本缓存，从延迟的副本读到旧数据后整个版本内都不会再纠正
     @Select("SELECT * FROM food")
     List<food> findAll();
-}
 
+    // 单个餐厅的菜单，走 (restaurant_id, id) 索引，只扫描该餐厅的行；与findAll同理读主库
+    @Select("SELECT * FROM food WHERE restaurant_id = #{restaurantId} ORDER BY id")
+    List<food> findByRestaurant(int restaurantId);
+
+    // 库存同步只需要id和库存两列
+    @Select("SELECT id, stock FROM food")
+    List<food> findStocks();
+
+    // 结算时按条件扣减库存，多个节点并发结算同一菜品时由数据库保证不超卖；库存不足时影响0行，不限量(NULL)的菜品总是成功
+    @Update("UPDATE food SET stock = stock - #{quantity} WHERE id = #{id} AND (stock IS NULL OR stock >= #{quantity})")
+    int takeStock(@Param("id") int id, @Param("quantity") int quantity);
+
+    // 结算扣减库存后订单写入失败时把库存加回
+    @Update("UPDATE food SET stock = stock + #{quantity} WHERE id = #{id} AND stock IS NOT NULL")
+    int returnStock(@Param("id") int id, @Param("quantity") int quantity);
+
+    // 以下写操作供批量导入使用，在BATCH执行器下按批次提交
+    @Insert("INSERT INTO food (name, info, price, level, restaurant_id) VALUES (#{name}, #{info}, #{price}, #{level}, #{restaurantId})")
+    int insert(food item);
+
+    @Insert("INSERT INTO food (id, name, info, price, level, restaurant_id) VALUES (#{id}, #{name}, #{info}, #{price}, #{level}, #{restaurantId})")
+    int insertWithId(food item);
+
+    @Update("UPDATE food SET name = #{name}, info = #{info}, price = #{price}, level = #{level} WHERE id = #{id}")
+    int updateById(food item);
+
+    // 菜名只在餐厅内唯一，按菜名更新必须带上餐厅
+    @Update("UPDATE food SET info = #{info}, price = #{price}, level = #{level} WHERE name = #{name} AND restaurant_id = #{restaurantId}")
+    int updateByName(food item);
+}
@@ -1,6 +1,7 @@
 package com.example.demo1.Mapper;
 
 import com.example.demo1.Entity.user;
+import com.example.demo1.datasource.ReadOnlyQuery;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
@@ -13,6 +14,7 @@ import java.util.List;
 public interface userMapper {
 
     @Select("select * from user")
+    @ReadOnlyQuery
     public List<user> findAll();
 
     @Select("select * from user where id = #{id}") // 根据ID查询
@@ -22,7 +22,16 @@ public class WebConfig implements WebMvcConfigurer {
                     "/user/search",
                     "/user/detail",
                     "/food/list",
+                    "/r/*/food/list",
+                    "/food/page",
+                    "/r/*/food/page",
                     "/food/detail",
+                    "/food/search",
+                    "/food/suggest",
+                    "/food/trending",
+                    "/food/*/companions",
+                    "/food/*/stock",
+                    "/api/food",
                     "/img/**",
                     "/css/**",
                     "/js/**"
@@ -0,0 +1,98 @@
+package com.example.demo1.cart;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 购物车快照 - 某一时刻的菜品ID到购物车行的映射及总金额，只读
+ */
+public final class Cart {
+
+    private final String id;
+
+    /**
+     * 版本号，每次有实际变化的修改加一；同一购物车的版本号只增不减（过期清理后从0重新开始）
+     */
+    private final long version;
+
+    /**
+     * 购物车中菜品所属的餐厅，空购物车为0
+     */
+    private final int restaurantId;
+
+    /**
+     * 菜品ID -> 购物车行，按加入顺序排列
+     */
+    private final Map<Integer, CartLine> lines;
+
+    /**
+     * 总金额，随每次修改增量维护，不重新求和
+     */
+    private final long total;
+
+    /**
+     * 产生该快照的那次修改中各菜品数量的变化（修改后减修改前），由存储在修改的临界区内计算；
+     * 只有apply返回的快照带有，其他情况为空
+     */
+    private final Map<Integer, Integer> quantityChanges;
+
+    Cart(String id, long version, int restaurantId, Map<Integer, CartLine> lines, long total) {
+        this(id, version, restaurantId, lines, total, Collections.emptyMap());
+    }
+
+    Cart(String id, long version, int restaurantId, Map<Integer, CartLine> lines, long total,
+         Map<Integer, Integer> quantityChanges) {
+        this.id = id;
+        this.version = version;
+        this.restaurantId = restaurantId;
+        this.lines = Collections.unmodifiableMap(lines);
+        this.total = total;
+        this.quantityChanges = Collections.unmodifiableMap(quantityChanges);
+    }
+
+    public static Cart empty(String id) {
+        return new Cart(id, 0, 0, Collections.emptyMap(), 0);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getRestaurantId() {
+        return restaurantId;
+    }
+
+    public Collection<CartLine> getLines() {
+        return lines.values();
+    }
+
+    public CartLine line(int foodId) {
+        return lines.get(foodId);
+    }
+
+    public int quantity(int foodId) {
+        CartLine line = lines.get(foodId);
+        return line == null ? 0 : line.quantity();
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<Integer, Integer> getQuantityChanges() {
+        return quantityChanges;
+    }
+
+    public int size() {
+        return lines.size();
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo1.cart;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 购物车自某一版本以来的变化
+ *
+ * @param full    为true时lines是完整的购物车，客户端应整体替换；否则只包含其间改动过、仍在购物车中的行
+ * @param removed 其间被删除的菜品ID，full为true时为空
+ */
+public record CartDelta(String cartId, long version, boolean full, int restaurantId, long total,
+                        Collection<CartLine> lines, List<Integer> removed) {
+}
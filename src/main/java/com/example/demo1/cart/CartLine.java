@@ -0,0 +1,11 @@
+package com.example.demo1.cart;
+
+/**
+ * 购物车中的一行：菜品、数量与加入时的单价（分）
+ */
+public record CartLine(int foodId, int quantity, long unitPrice) {
+
+    public long amount() {
+        return quantity * unitPrice;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo1.cart;
+
+/**
+ * 批量修改购物车时的一个操作，按列表顺序执行
+ *
+ * @param quantity  ADD为加入数量，ADJUST为数量增量，REMOVE忽略
+ * @param unitPrice ADD时新行的单价（分）
+ */
+public record CartOp(Type type, int foodId, int quantity, long unitPrice, int restaurantId) {
+
+    public enum Type {
+        ADD, ADJUST, REMOVE
+    }
+
+    public static CartOp add(int foodId, int quantity, long unitPrice, int restaurantId) {
+        return new CartOp(Type.ADD, foodId, quantity, unitPrice, restaurantId);
+    }
+
+    public static CartOp adjust(int foodId, int delta) {
+        return new CartOp(Type.ADJUST, foodId, delta, 0, 0);
+    }
+
+    public static CartOp remove(int foodId) {
+        return new CartOp(Type.REMOVE, foodId, 0, 0, 0);
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.demo1.cart;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 单个购物车的可变状态，由各存储实现在自己的互斥范围内修改，非线程安全
+ * 每行只有数量和单价（分）两个long；每次修改按数量变化量调整总金额，不重新求和
+ * 版本号在每次有实际变化的修改后加一，清空购物车时也不归零；
+ * 最近若干个版本各改了哪些菜品保存在有界的历史中，供增量同步
+ */
+final class CartState {
+
+    private long version;
+
+    /**
+     * 自上次bump以来数量或单价有变化的菜品
+     */
+    private final Set<Integer> touched = new LinkedHashSet<>();
+
+    /**
+     * 最近的修改记录，按版本号升序，最多保留historySize条
+     */
+    private final Deque<Change> history = new ArrayDeque<>();
+
+    private int restaurantId;
+
+    /**
+     * 菜品ID -> {数量, 单价}
+     */
+    private final LinkedHashMap<Integer, long[]> lines = new LinkedHashMap<>();
+
+    private long total;
+
+    /**
+     * 加入菜品，已有该菜品时累加数量；购物车已有其他餐厅的菜品时不做修改
+     *
+     * @return 是否已加入
+     */
+    boolean add(int foodId, int quantity, long unitPrice, int restaurantId) {
+        if (quantity <= 0) {
+            return true;
+        }
+        if (!lines.isEmpty() && restaurantId != this.restaurantId) {
+            return false;
+        }
+        long[] line = lines.get(foodId);
+        if (line == null) {
+            line = new long[]{0, unitPrice};
+            lines.put(foodId, line);
+            this.restaurantId = restaurantId;
+        }
+        set(foodId, line, line[0] + quantity);
+        return true;
+    }
+
+    /**
+     * 按增量修改已有行的数量，降到0时删除该行；购物车中没有该菜品时不做修改
+     */
+    void adjust(int foodId, int delta) {
+        long[] line = lines.get(foodId);
+        if (line != null) {
+            set(foodId, line, line[0] + delta);
+        }
+    }
+
+    void remove(int foodId) {
+        long[] line = lines.get(foodId);
+        if (line != null) {
+            set(foodId, line, 0);
+        }
+    }
+
+    void clear() {
+        touched.addAll(lines.keySet());
+        lines.clear();
+        total = 0;
+        restaurantId = 0;
+    }
+
+    /**
+     * 按顺序执行一组操作；有加入其他餐厅菜品的操作时返回false，此时状态可能已部分修改，调用方应丢弃
+     */
+    boolean apply(List<CartOp> ops) {
+        for (CartOp op : ops) {
+            switch (op.type()) {
+                case ADD -> {
+                    if (!add(op.foodId(), op.quantity(), op.unitPrice(), op.restaurantId())) {
+                        return false;
+                    }
+                }
+                case ADJUST -> adjust(op.foodId(), op.quantity());
+                case REMOVE -> remove(op.foodId());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 乐观并发检查：expectedVersion为负数时不检查，与当前版本一致时直接执行；
+     * 版本已过期时，只含数量增量（ADD、ADJUST）的操作与其间的其他修改可交换，合并执行，含REMOVE时冲突
+     *
+     * @throws CartVersionConflictException 版本已过期且不能合并
+     */
+    void expect(String id, long expectedVersion, List<CartOp> ops) {
+        if (expectedVersion < 0 || expectedVersion == version) {
+            return;
+        }
+        for (CartOp op : ops) {
+            if (op.type() == CartOp.Type.REMOVE) {
+                throw new CartVersionConflictException(toCart(id));
+            }
+        }
+    }
+
+    /**
+     * 有实际变化时版本号加一，并记录这一版本改动的菜品，超过historySize条时丢弃最早的记录；
+     * 新购物车的第一个版本取当前毫秒数，购物车过期后以同一ID重建时，版本号不会与过期前客户端持有的重复
+     */
+    void bump(int historySize) {
+        if (touched.isEmpty()) {
+            return;
+        }
+        version = version == 0 ? Math.max(System.currentTimeMillis(), 1) : version + 1;
+        history.addLast(new Change(version, touched.stream().mapToInt(Integer::intValue).toArray()));
+        while (history.size() > historySize) {
+            history.removeFirst();
+        }
+        touched.clear();
+    }
+
+    /**
+     * sinceVersion之后的变化：历史覆盖时只包含其间改动过的菜品，否则为完整快照
+     */
+    CartDelta since(String id, long sinceVersion) {
+        if (sinceVersion == version) {
+            return new CartDelta(id, version, false, restaurantId, total, List.of(), List.of());
+        }
+        Change oldest = history.peekFirst();
+        if (sinceVersion < 0 || sinceVersion > version || oldest == null || oldest.version() > sinceVersion + 1) {
+            return new CartDelta(id, version, true, restaurantId, total, toCart(id).getLines(), List.of());
+        }
+        Set<Integer> foodIds = new LinkedHashSet<>();
+        for (Change change : history) {
+            if (change.version() > sinceVersion) {
+                for (int foodId : change.foodIds()) {
+                    foodIds.add(foodId);
+                }
+            }
+        }
+        List<CartLine> changed = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+        for (Integer foodId : foodIds) {
+            long[] line = lines.get(foodId);
+            if (line == null) {
+                removed.add(foodId);
+            } else {
+                changed.add(new CartLine(foodId, (int) line[0], line[1]));
+            }
+        }
+        return new CartDelta(id, version, false, restaurantId, total, changed, removed);
+    }
+
+    /**
+     * 按最新单价更新购物车行，总金额按差价调整
+     */
+    void reprice(Map<Integer, Long> prices) {
+        prices.forEach((foodId, price) -> {
+            long[] line = lines.get(foodId);
+            if (line != null && line[1] != price) {
+                total += line[0] * (price - line[1]);
+                line[1] = price;
+                touched.add(foodId);
+            }
+        });
+    }
+
+    boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    Cart toCart(String id) {
+        return new Cart(id, version, restaurantId, cartLines(), total);
+    }
+
+    /**
+     * 转为快照，并带上相对before各菜品数量的变化
+     */
+    Cart toCart(String id, CartState before) {
+        Map<Integer, Integer> changes = new LinkedHashMap<>();
+        lines.forEach((foodId, line) -> {
+            long[] old = before.lines.get(foodId);
+            long change = line[0] - (old == null ? 0 : old[0]);
+            if (change != 0) {
+                changes.put(foodId, (int) change);
+            }
+        });
+        before.lines.forEach((foodId, old) -> {
+            if (!lines.containsKey(foodId)) {
+                changes.put(foodId, (int) -old[0]);
+            }
+        });
+        return new Cart(id, version, restaurantId, cartLines(), total, changes);
+    }
+
+    long version() {
+        return version;
+    }
+
+    int restaurantId() {
+        return restaurantId;
+    }
+
+    long total() {
+        return total;
+    }
+
+    /**
+     * 菜品ID -> {数量, 单价}，只读
+     */
+    Map<Integer, long[]> lines() {
+        return lines;
+    }
+
+    /**
+     * 修改记录，只读
+     */
+    Collection<Change> history() {
+        return history;
+    }
+
+    CartState copy() {
+        CartState copy = new CartState();
+        copy.version = version;
+        copy.touched.addAll(touched);
+        copy.history.addAll(history);
+        copy.restaurantId = restaurantId;
+        copy.total = total;
+        lines.forEach((foodId, line) -> copy.lines.put(foodId, line.clone()));
+        return copy;
+    }
+
+    /**
+     * 由各字段直接组装，供从外部存储读出时使用
+     */
+    static CartState of(long version, int restaurantId, long total, Map<Integer, long[]> lines,
+                        Collection<Change> history) {
+        CartState state = new CartState();
+        state.version = version;
+        state.restaurantId = restaurantId;
+        state.total = total;
+        state.lines.putAll(lines);
+        state.history.addAll(history);
+        return state;
+    }
+
+    private Map<Integer, CartLine> cartLines() {
+        Map<Integer, CartLine> copy = new LinkedHashMap<>(lines.size() * 2);
+        lines.forEach((foodId, line) -> copy.put(foodId, new CartLine(foodId, (int) line[0], line[1])));
+        return copy;
+    }
+
+    private void set(int foodId, long[] line, long quantity) {
+        quantity = Math.min(Math.max(quantity, 0), Integer.MAX_VALUE);
+        if (quantity == line[0]) {
+            return;
+        }
+        touched.add(foodId);
+        total += (quantity - line[0]) * line[1];
+        line[0] = quantity;
+        if (quantity == 0) {
+            lines.remove(foodId);
+            if (lines.isEmpty()) {
+                // 清空时归零，不把之后的购物车限制在原来的餐厅
+                total = 0;
+                restaurantId = 0;
+            }
+        }
+    }
+
+    /**
+     * 一个版本改动的菜品
+     */
+    record Change(long version, int[] foodIds) {
+    }
+}
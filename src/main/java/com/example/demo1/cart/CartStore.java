@@ -0,0 +1,85 @@
+package com.example.demo1.cart;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 购物车存储 - 按购物车ID保存菜品ID到数量的映射，与HttpSession无关，任一节点都能读写
+ * 由cart.store选择实现：memory为本节点内存，redis为共享的Redis
+ * 每次有实际变化的修改使购物车版本号加一，清空后版本号保留，直到购物车过期；
+ * 同一购物车的并发修改按版本号比较并交换，不需要对会话加锁或串行化用户的请求
+ */
+public interface CartStore {
+
+    /**
+     * 读取购物车，不存在时返回空购物车
+     */
+    Cart get(String cartId);
+
+    /**
+     * 读取自sinceVersion以来的变化；变化记录已被淘汰、版本号不连续或sinceVersion为负数时返回完整快照
+     */
+    CartDelta changesSince(String cartId, long sinceVersion);
+
+    /**
+     * 加入菜品，已在购物车中时累加数量
+     * 购物车已有其他餐厅的菜品时不做修改，返回的购物车餐厅与restaurantId不同
+     *
+     * @param unitPrice 新行的单价（分），已有的行保留原单价
+     */
+    Cart add(String cartId, int foodId, int quantity, long unitPrice, int restaurantId);
+
+    /**
+     * 按增量修改数量，降到0时删除该行；购物车中没有该菜品时不做修改
+     */
+    Cart adjust(String cartId, int foodId, int delta);
+
+    /**
+     * 删除一行
+     */
+    Cart remove(String cartId, int foodId);
+
+    /**
+     * 按最新单价更新购物车中的行
+     *
+     * @param prices 菜品ID -> 单价（分）
+     */
+    Cart reprice(String cartId, Map<Integer, Long> prices);
+
+    /**
+     * 按顺序执行一组操作，作为一次修改整体生效，版本号只加一；不检查版本号
+     *
+     * @return 修改后的购物车；有操作加入其他餐厅的菜品时返回null，购物车不做任何修改
+     */
+    default Cart apply(String cartId, List<CartOp> ops) {
+        return apply(cartId, ops, -1);
+    }
+
+    /**
+     * 基于客户端看到的版本号执行一组操作：版本号一致时直接执行；
+     * 已过期时，只含数量增量的操作合并到最新的购物车上执行，含删除的操作冲突
+     *
+     * @param expectedVersion 客户端看到的版本号，负数表示不检查
+     * @return 修改后的购物车，带有这次修改实际造成的各菜品数量变化；有操作加入其他餐厅的菜品时返回null，购物车不做任何修改
+     * @throws CartVersionConflictException 版本号已过期且操作不能合并
+     */
+    Cart apply(String cartId, List<CartOp> ops, long expectedVersion);
+
+    /**
+     * 清空购物车
+     */
+    void clear(String cartId);
+
+    /**
+     * 版本号仍为expectedVersion时清空购物车，用于结算时按已计价的版本认领购物车：
+     * 期间加入的菜品不会被一并清掉，同一购物车的并发结算只有一个能认领成功
+     *
+     * @return 是否已清空；版本号不一致时不做修改
+     */
+    boolean clear(String cartId, long expectedVersion);
+
+    /**
+     * 存储统计信息
+     */
+    Map<String, Object> stats();
+}
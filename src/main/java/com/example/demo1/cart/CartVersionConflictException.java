@@ -0,0 +1,18 @@
+package com.example.demo1.cart;
+
+/**
+ * 按过期的版本号修改购物车且不能合并时抛出，携带购物车的当前状态供客户端刷新后重试
+ */
+public class CartVersionConflictException extends RuntimeException {
+
+    private final Cart current;
+
+    public CartVersionConflictException(Cart current) {
+        super("购物车已被修改，当前版本 " + current.getVersion());
+        this.current = current;
+    }
+
+    public Cart getCurrent() {
+        return current;
+    }
+}
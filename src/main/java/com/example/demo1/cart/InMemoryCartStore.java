@@ -0,0 +1,190 @@
+package com.example.demo1.cart;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 本节点内存中的购物车存储，适合单节点部署
+ * 每次修改只锁住该购物车所在的ConcurrentHashMap桶，版本号的检查与修改在同一临界区内，不同购物车互不阻塞
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryCartStore implements CartStore {
+
+    @Value("${cart.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${cart.history-size:16}")
+    private int historySize;
+
+    private final ConcurrentHashMap<String, Entry> carts = new ConcurrentHashMap<>();
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    @Override
+    public Cart get(String cartId) {
+        Entry entry = carts.get(cartId);
+        if (entry == null) {
+            return Cart.empty(cartId);
+        }
+        synchronized (entry) {
+            return entry.state.toCart(cartId);
+        }
+    }
+
+    @Override
+    public CartDelta changesSince(String cartId, long sinceVersion) {
+        Entry entry = carts.get(cartId);
+        if (entry == null) {
+            return new CartState().since(cartId, sinceVersion);
+        }
+        synchronized (entry) {
+            return entry.state.since(cartId, sinceVersion);
+        }
+    }
+
+    @Override
+    public Cart add(String cartId, int foodId, int quantity, long unitPrice, int restaurantId) {
+        return update(cartId, state -> state.add(foodId, quantity, unitPrice, restaurantId));
+    }
+
+    @Override
+    public Cart adjust(String cartId, int foodId, int delta) {
+        return update(cartId, state -> state.adjust(foodId, delta));
+    }
+
+    @Override
+    public Cart remove(String cartId, int foodId) {
+        return update(cartId, state -> state.remove(foodId));
+    }
+
+    @Override
+    public Cart reprice(String cartId, Map<Integer, Long> prices) {
+        return update(cartId, state -> state.reprice(prices));
+    }
+
+    @Override
+    public Cart apply(String cartId, List<CartOp> ops, long expectedVersion) {
+        Cart[] result = new Cart[1];
+        carts.compute(cartId, (k, entry) -> {
+            if (entry == null) {
+                entry = new Entry();
+            }
+            synchronized (entry) {
+                entry.state.expect(cartId, expectedVersion, ops);
+                // 在副本上执行，全部成功后才替换，中途失败时原状态不变
+                CartState next = entry.state.copy();
+                if (next.apply(ops)) {
+                    next.bump(historySize);
+                    result[0] = next.toCart(cartId, entry.state);
+                    entry.state = next;
+                    entry.touchedAt = System.currentTimeMillis();
+                }
+                return retained(entry);
+            }
+        });
+        updates.increment();
+        return result[0];
+    }
+
+    @Override
+    public void clear(String cartId) {
+        if (carts.containsKey(cartId)) {
+            update(cartId, CartState::clear);
+        }
+    }
+
+    @Override
+    public boolean clear(String cartId, long expectedVersion) {
+        boolean[] cleared = new boolean[1];
+        carts.compute(cartId, (k, entry) -> {
+            if (entry == null) {
+                cleared[0] = expectedVersion == 0;
+                return null;
+            }
+            synchronized (entry) {
+                if (entry.state.version() == expectedVersion) {
+                    entry.state.clear();
+                    entry.state.bump(historySize);
+                    entry.touchedAt = System.currentTimeMillis();
+                    cleared[0] = true;
+                }
+                return retained(entry);
+            }
+        });
+        updates.increment();
+        return cleared[0];
+    }
+
+    /**
+     * 清理长时间未修改的购物车；检查与删除在同一个compute内，刚被修改的购物车不会被删掉
+     */
+    @Scheduled(fixedDelayString = "${cart.sweep-interval-ms:60000}")
+    public void expire() {
+        long deadline = System.currentTimeMillis() - ttlMinutes * 60_000;
+        for (String cartId : carts.keySet()) {
+            carts.computeIfPresent(cartId, (k, entry) -> {
+                synchronized (entry) {
+                    if (entry.touchedAt >= deadline) {
+                        return entry;
+                    }
+                }
+                expired.increment();
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cartStore", "memory");
+        stats.put("carts", carts.size());
+        stats.put("cartUpdates", updates.sum());
+        stats.put("cartsExpired", expired.sum());
+        return stats;
+    }
+
+    private Cart update(String cartId, Consumer<CartState> change) {
+        Cart[] result = new Cart[1];
+        carts.compute(cartId, (k, entry) -> {
+            if (entry == null) {
+                entry = new Entry();
+            }
+            synchronized (entry) {
+                change.accept(entry.state);
+                entry.state.bump(historySize);
+                entry.touchedAt = System.currentTimeMillis();
+                result[0] = entry.state.toCart(cartId);
+                return retained(entry);
+            }
+        });
+        updates.increment();
+        return result[0];
+    }
+
+    /**
+     * 从未修改过的空购物车不保存；清空过的保留，使版本号不回退
+     */
+    private static Entry retained(Entry entry) {
+        return entry.state.isEmpty() && entry.state.version() == 0 ? null : entry;
+    }
+
+    /**
+     * 修改在compute内进行；读取时锁住条目本身，避免读到修改了一半的状态
+     */
+    private static final class Entry {
+        private CartState state = new CartState();
+        private volatile long touchedAt = System.currentTimeMillis();
+    }
+}
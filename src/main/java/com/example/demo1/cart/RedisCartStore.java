@@ -0,0 +1,312 @@
+package com.example.demo1.cart;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Redis中的购物车存储，多个节点共享，请求落到任一节点都能读到同一个购物车
+ * 每个购物车一个哈希 cart:{id}：字段为菜品ID、值为数量，另有 p:{菜品ID} 单价、restaurant 餐厅、total 总金额（分）、version 版本号，
+ * 以及最近若干个版本的修改记录 h:{版本号}，值为该版本改动的菜品ID，逗号分隔；
+ * 一次修改先WATCH并用HGETALL读出，再把变化的字段连同过期时间放在一个MULTI/EXEC事务中写回；
+ * 期间被其他请求修改过时EXEC放弃，重新读取后重试，相当于以整个哈希为单位比较并交换。
+ * WATCH与HGETALL作为一个管道发送；MULTI和EXEC各等待一次应答，排队的命令由Lettuce连续发出、不逐条等待QUEUED，
+ * 一次修改三次往返，不随改动的字段数增加。事务不放进管道：Spring Data Redis在管道中执行EXEC时，
+ * 排队命令的结果记在管道而不是事务中，成功的EXEC会因结果个数对不上而抛出异常
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "redis")
+public class RedisCartStore implements CartStore {
+
+    static final String KEY_PREFIX = "cart:";
+    static final String PRICE_PREFIX = "p:";
+    static final String HISTORY_PREFIX = "h:";
+    static final String FIELD_RESTAURANT = "restaurant";
+    static final String FIELD_TOTAL = "total";
+    static final String FIELD_VERSION = "version";
+
+    /**
+     * 被并发修改抢先时的最大尝试次数
+     */
+    private static final int MAX_ATTEMPTS = 32;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${cart.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${cart.history-size:16}")
+    private int historySize;
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder transactions = new LongAdder();
+    private final LongAdder queuedCommands = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    @Override
+    public Cart get(String cartId) {
+        return read(redisTemplate, KEY_PREFIX + cartId).toCart(cartId);
+    }
+
+    @Override
+    public CartDelta changesSince(String cartId, long sinceVersion) {
+        return read(redisTemplate, KEY_PREFIX + cartId).since(cartId, sinceVersion);
+    }
+
+    @Override
+    public Cart add(String cartId, int foodId, int quantity, long unitPrice, int restaurantId) {
+        return update(cartId, state -> {
+            state.add(foodId, quantity, unitPrice, restaurantId);
+            return true;
+        });
+    }
+
+    @Override
+    public Cart adjust(String cartId, int foodId, int delta) {
+        return update(cartId, state -> {
+            state.adjust(foodId, delta);
+            return true;
+        });
+    }
+
+    @Override
+    public Cart remove(String cartId, int foodId) {
+        return update(cartId, state -> {
+            state.remove(foodId);
+            return true;
+        });
+    }
+
+    @Override
+    public Cart reprice(String cartId, Map<Integer, Long> prices) {
+        return update(cartId, state -> {
+            state.reprice(prices);
+            return true;
+        });
+    }
+
+    @Override
+    public Cart apply(String cartId, List<CartOp> ops, long expectedVersion) {
+        return update(cartId, state -> {
+            state.expect(cartId, expectedVersion, ops);
+            return state.apply(ops);
+        });
+    }
+
+    @Override
+    public void clear(String cartId) {
+        update(cartId, state -> {
+            state.clear();
+            return true;
+        });
+    }
+
+    @Override
+    public boolean clear(String cartId, long expectedVersion) {
+        return update(cartId, state -> {
+            if (state.version() != expectedVersion) {
+                return false;
+            }
+            state.clear();
+            return true;
+        }) != null;
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cartStore", "redis");
+        stats.put("cartUpdates", updates.sum());
+        stats.put("cartTransactions", transactions.sum());
+        stats.put("cartQueuedCommands", queuedCommands.sum());
+        stats.put("cartRetries", retries.sum());
+        return stats;
+    }
+
+    /**
+     * 读取、修改、写回，写回时版本已被其他请求改变则重试
+     *
+     * @param change 修改购物车副本，返回false时放弃修改并返回null
+     */
+    private Cart update(String cartId, Predicate<CartState> change) {
+        String key = KEY_PREFIX + cartId;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Cart[] result = new Cart[1];
+            Boolean committed = redisTemplate.execute(new SessionCallback<Boolean>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Boolean execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    List<Object> read = pipelined(ops, pipe -> {
+                        pipe.watch(key);
+                        pipe.opsForHash().entries(key);
+                    });
+                    CartState before = parse((Map<String, String>) read.get(read.size() - 1));
+                    CartState after = before.copy();
+                    if (!change.test(after)) {
+                        ops.unwatch();
+                        return true;
+                    }
+                    after.bump(historySize);
+                    // 数量变化与写回基于同一次读取，EXEC成功时就是实际生效的变化
+                    result[0] = after.toCart(cartId, before);
+                    if (after.version() == before.version()) {
+                        // 没有实际变化，不必写回
+                        ops.unwatch();
+                        return true;
+                    }
+                    ops.multi();
+                    write(ops, key, before, after);
+                    // WATCH的键被修改、事务被放弃时，Lettuce的TransactionResult为空，RedisTemplate.exec()返回null
+                    List<Object> results = ops.exec();
+                    if (results == null || results.isEmpty()) {
+                        return false;
+                    }
+                    transactions.increment();
+                    queuedCommands.add(results.size());
+                    return true;
+                }
+            });
+            if (Boolean.TRUE.equals(committed)) {
+                updates.increment();
+                return result[0];
+            }
+            retries.increment();
+        }
+        throw new IllegalStateException("购物车并发修改过于频繁，请稍后重试");
+    }
+
+    /**
+     * 在同一连接上把一组命令作为一个管道发送，返回各命令的结果；WATCH等状态应答不计入结果
+     */
+    private static List<Object> pipelined(RedisOperations<String, String> ops,
+                                          Consumer<RedisOperations<String, String>> commands) {
+        return ops.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                commands.accept((RedisOperations<String, String>) operations);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 一次HGETALL读出整个购物车，按菜品ID排序
+     */
+    private static CartState read(RedisOperations<String, String> ops, String key) {
+        HashOperations<String, String, String> hash = ops.opsForHash();
+        return parse(hash.entries(key));
+    }
+
+    private static CartState parse(Map<String, String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return new CartState();
+        }
+        Map<Integer, long[]> lines = new TreeMap<>();
+        TreeMap<Long, CartState.Change> history = new TreeMap<>();
+        fields.forEach((field, value) -> {
+            if (field.startsWith(HISTORY_PREFIX)) {
+                long version = Long.parseLong(field.substring(HISTORY_PREFIX.length()));
+                history.put(version, new CartState.Change(version, parseIds(value)));
+            } else if (field.startsWith(PRICE_PREFIX)) {
+                lines.computeIfAbsent(Integer.parseInt(field.substring(PRICE_PREFIX.length())), id -> new long[2])[1] =
+                        Long.parseLong(value);
+            } else if (!field.equals(FIELD_RESTAURANT) && !field.equals(FIELD_TOTAL) && !field.equals(FIELD_VERSION)) {
+                lines.computeIfAbsent(Integer.parseInt(field), id -> new long[2])[0] = Long.parseLong(value);
+            }
+        });
+        // 只有单价没有数量的行是数量已减到0的残留
+        lines.values().removeIf(line -> line[0] <= 0);
+        return CartState.of(parseLong(fields.get(FIELD_VERSION)), parseInt(fields.get(FIELD_RESTAURANT)),
+                parseLong(fields.get(FIELD_TOTAL)), lines, history.values());
+    }
+
+    /**
+     * 在事务中只写回变化的字段；清空的购物车保留版本号字段直到过期
+     */
+    private void write(RedisOperations<String, String> ops, String key, CartState before, CartState after) {
+        HashOperations<String, String, String> hash = ops.opsForHash();
+        if (after.restaurantId() != before.restaurantId()) {
+            hash.put(key, FIELD_RESTAURANT, String.valueOf(after.restaurantId()));
+        }
+        after.lines().forEach((foodId, line) -> {
+            long[] old = before.lines().get(foodId);
+            long oldQuantity = old == null ? 0 : old[0];
+            if (line[0] != oldQuantity) {
+                hash.increment(key, String.valueOf(foodId), line[0] - oldQuantity);
+            }
+            if (old == null || old[1] != line[1]) {
+                hash.put(key, PRICE_PREFIX + foodId, String.valueOf(line[1]));
+            }
+        });
+        before.lines().keySet().forEach(foodId -> {
+            if (!after.lines().containsKey(foodId)) {
+                hash.delete(key, String.valueOf(foodId), PRICE_PREFIX + foodId);
+            }
+        });
+        if (after.total() != before.total()) {
+            hash.increment(key, FIELD_TOTAL, after.total() - before.total());
+        }
+        hash.increment(key, FIELD_VERSION, after.version() - before.version());
+        long oldest = Long.MAX_VALUE;
+        for (CartState.Change change : after.history()) {
+            oldest = Math.min(oldest, change.version());
+            if (change.version() > before.version()) {
+                hash.put(key, HISTORY_PREFIX + change.version(), joinIds(change.foodIds()));
+            }
+        }
+        for (CartState.Change change : before.history()) {
+            if (change.version() < oldest) {
+                hash.delete(key, HISTORY_PREFIX + change.version());
+            }
+        }
+        ops.expire(key, ttlMinutes, TimeUnit.MINUTES);
+    }
+
+    private static String joinIds(int[] foodIds) {
+        StringBuilder sb = new StringBuilder(foodIds.length * 4);
+        for (int foodId : foodIds) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(foodId);
+        }
+        return sb.toString();
+    }
+
+    private static int[] parseIds(String value) {
+        if (value.isEmpty()) {
+            return new int[0];
+        }
+        String[] parts = value.split(",");
+        int[] foodIds = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            foodIds[i] = Integer.parseInt(parts[i]);
+        }
+        return foodIds;
+    }
+
+    private static int parseInt(String value) {
+        return value == null ? 0 : Integer.parseInt(value);
+    }
+
+    private static long parseLong(String value) {
+        return value == null ? 0 : Long.parseLong(value);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * 菜品供应时段索引 - 一天按15分钟划分为96个时段，每个时段一个位图，第i位对应快照中第i个菜品
+ * 随快照一起构建，目录不变时不会重建；查询某时段可点的菜品只需与该时段位图按位与
+ */
+public final class AvailabilityIndex {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS = 24 * 60 / SLOT_MINUTES;
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * slots[时段][word]
+     */
+    private final long[][] slots;
+
+    private final int size;
+
+    private AvailabilityIndex(long[][] slots, int size) {
+        this.slots = slots;
+        this.size = size;
+    }
+
+    /**
+     * 按快照中的菜品顺序构建；供应时段不完整覆盖的时段视为不可点
+     */
+    public static AvailabilityIndex build(List<food> foods) {
+        int words = (foods.size() + 63) >>> 6;
+        long[][] slots = new long[SLOTS][words];
+        for (int pos = 0; pos < foods.size(); pos++) {
+            food item = foods.get(pos);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                if (covers(item.getAvailableFrom(), item.getAvailableTo(), slot)) {
+                    slots[slot][pos >>> 6] |= 1L << pos;
+                }
+            }
+        }
+        return new AvailabilityIndex(slots, foods.size());
+    }
+
+    /**
+     * 时刻所在的时段
+     */
+    public static int slotOf(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    /**
+     * 时段的起始时刻
+     */
+    public static LocalTime startOf(int slot) {
+        return LocalTime.of(0, 0).plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    /**
+     * 某时段的可点位图，只读
+     */
+    public long[] slot(int slot) {
+        return slots[slot];
+    }
+
+    public boolean isAvailable(int pos, int slot) {
+        return (slots[slot][pos >>> 6] & (1L << pos)) != 0;
+    }
+
+    /**
+     * 某时段可点的菜品数
+     */
+    public int count(int slot) {
+        int n = 0;
+        for (long word : slots[slot]) {
+            n += Long.bitCount(word);
+        }
+        return n;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long memoryBytes() {
+        return (long) SLOTS * slots[0].length * Long.BYTES;
+    }
+
+    /**
+     * 供应时段 [from, to) 是否覆盖整个时段，单位为当天分钟数；
+     * 都为空或相等表示全天供应，from大于to表示跨过零点（如夜宵22:00-02:00）
+     */
+    static boolean covers(Integer from, Integer to, int slot) {
+        if (from == null && to == null) {
+            return true;
+        }
+        int start = from == null ? 0 : Math.floorMod(from, MINUTES_PER_DAY);
+        int end = to == null ? MINUTES_PER_DAY : Math.floorMod(to, MINUTES_PER_DAY);
+        if (end == 0) {
+            end = MINUTES_PER_DAY;
+        }
+        if (start == end) {
+            return true;
+        }
+        int slotStart = slot * SLOT_MINUTES;
+        int slotEnd = slotStart + SLOT_MINUTES;
+        if (start < end) {
+            return start <= slotStart && slotEnd <= end;
+        }
+        // 跨零点：[start, 24:00) 或 [00:00, end)
+        return start <= slotStart || slotEnd <= end;
+    }
+}
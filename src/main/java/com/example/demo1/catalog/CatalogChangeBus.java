@@ -0,0 +1,185 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.config.MockRedisConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 菜单目录变更总线 - 通过Redis发布订阅在多个节点间同步目录版本
+ * 全局版本号保存在catalog:version键中，由INCR分配；变更后向同名频道广播
+ * "版本|节点|发布时间|餐厅ID列表"，其他节点收到后推进本地版本并重建快照；餐厅ID列表为空表示影响所有餐厅
+ */
+@Component
+public class CatalogChangeBus implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogChangeBus.class);
+
+    public static final String CHANNEL = "catalog:version";
+
+    public static final String VERSION_KEY = "catalog:version";
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    /**
+     * 仅在启用真实Redis时存在，见RedisConfig
+     */
+    @Autowired(required = false)
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder publishFailures = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder totalLagMillis = new LongAdder();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    @PostConstruct
+    public void subscribe() {
+        if (listenerContainer != null) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        } else if (redisTemplate instanceof MockRedisConfig.MockStringRedisTemplate mock) {
+            mock.subscribe(CHANNEL, this);
+        } else {
+            log.warn("未找到Redis消息监听容器，菜单目录变更不会在节点间同步");
+        }
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (listenerContainer != null) {
+            listenerContainer.removeMessageListener(this);
+        } else if (redisTemplate instanceof MockRedisConfig.MockStringRedisTemplate mock) {
+            mock.unsubscribe(CHANNEL, this);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 读取当前全局版本，Redis不可用时返回0
+     */
+    public long currentVersion() {
+        try {
+            String value = redisTemplate.opsForValue().get(VERSION_KEY);
+            return value == null ? 0 : Long.parseLong(value);
+        } catch (RuntimeException e) {
+            log.warn("读取全局菜单目录版本失败: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 分配新的全局版本并广播，变更影响所有餐厅
+     *
+     * @param minVersion 新版本不得低于该值（Redis数据丢失后INCR会从头开始）
+     * @return 新版本；Redis不可用时返回0，由调用方在本地递增
+     */
+    public long publish(long minVersion) {
+        return publish(minVersion, List.of());
+    }
+
+    /**
+     * 分配新的全局版本并广播
+     *
+     * @param minVersion    新版本不得低于该值（Redis数据丢失后INCR会从头开始）
+     * @param restaurantIds 受影响的餐厅，为空时表示影响所有餐厅
+     * @return 新版本；Redis不可用时返回0，由调用方在本地递增
+     */
+    public long publish(long minVersion, Collection<Integer> restaurantIds) {
+        try {
+            Long next = redisTemplate.opsForValue().increment(VERSION_KEY);
+            long version = next == null ? minVersion : next;
+            if (version < minVersion) {
+                redisTemplate.opsForValue().set(VERSION_KEY, String.valueOf(minVersion));
+                version = minVersion;
+            }
+            String payload = version + "|" + nodeId + "|" + System.currentTimeMillis() + "|"
+                    + restaurantIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+            redisTemplate.convertAndSend(CHANNEL, payload);
+            published.increment();
+            return version;
+        } catch (RuntimeException e) {
+            publishFailures.increment();
+            log.warn("菜单目录变更广播失败，仅在本节点生效: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", -1);
+        // 旧版本节点发布的消息没有餐厅ID列表，按影响所有餐厅处理
+        if (parts.length < 3 || parts.length > 4 || nodeId.equals(parts[1])) {
+            return;
+        }
+        try {
+            received.increment();
+            Set<Integer> restaurantIds = new HashSet<>();
+            if (parts.length == 4 && !parts[3].isEmpty()) {
+                for (String id : parts[3].split(",")) {
+                    restaurantIds.add(Integer.parseInt(id));
+                }
+            }
+            eventPublisher.publishEvent(new CatalogChangedEvent(Long.parseLong(parts[0]), parts[1],
+                    Long.parseLong(parts[2]), restaurantIds));
+        } catch (NumberFormatException e) {
+            log.warn("忽略无法解析的菜单目录变更消息: {}", new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 记录一次远程变更从发布到本节点快照重建完成的耗时
+     */
+    public void recordApplied(long publishedAt) {
+        long lag = Math.max(0, System.currentTimeMillis() - publishedAt);
+        applied.increment();
+        totalLagMillis.add(lag);
+        lastLagMillis.set(lag);
+        maxLagMillis.accumulateAndGet(lag, Math::max);
+    }
+
+    public Map<String, Object> stats() {
+        long appliedCount = applied.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("nodeId", nodeId);
+        result.put("changesPublished", published.sum());
+        result.put("publishFailures", publishFailures.sum());
+        result.put("changesReceived", received.sum());
+        result.put("changesApplied", appliedCount);
+        result.put("lastPropagationLagMillis", lastLagMillis.get());
+        result.put("maxPropagationLagMillis", maxLagMillis.get());
+        result.put("avgPropagationLagMillis", appliedCount == 0 ? 0.0 : (double) totalLagMillis.sum() / appliedCount);
+        return result;
+    }
+}
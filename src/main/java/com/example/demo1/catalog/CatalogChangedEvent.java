@@ -0,0 +1,14 @@
+package com.example.demo1.catalog;
+
+import java.util.Set;
+
+/**
+ * 其他节点发布的菜单目录变更事件
+ *
+ * @param version     新的全局目录版本
+ * @param origin      发布节点标识
+ * @param publishedAt 发布时间（毫秒）
+ * @param restaurantIds 受影响的餐厅，为空时表示影响所有餐厅
+ */
+public record CatalogChangedEvent(long version, String origin, long publishedAt, Set<Integer> restaurantIds) {
+}
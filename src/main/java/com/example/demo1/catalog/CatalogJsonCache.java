@@ -0,0 +1,147 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 菜单JSON序列化 - 使用JsonGenerator逐个字段写出，不经过Map或对象树
+ * 全量菜单按 (目录版本, 字段掩码) 缓存序列化后的字节及其gzip压缩结果，
+ * 字段只有5个，掩码组合有限，每个版本最多32份
+ */
+@Component
+public class CatalogJsonCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicReference<VersionedMenus> menus = new AtomicReference<>(new VersionedMenus(-1));
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder serializations = new LongAdder();
+
+    /**
+     * 获取全量菜单的序列化结果，同一版本同一字段组合只序列化一次
+     */
+    public MenuJson fullMenu(CatalogSnapshot snap, int fieldMask) {
+        VersionedMenus current = advance(snap.getVersion());
+        // 旧快照的结果不缓存，不会再被命中
+        boolean cacheable = current.version == snap.getVersion();
+
+        MenuJson json = cacheable ? current.slots.get(fieldMask) : null;
+        if (json != null) {
+            hits.increment();
+            return json;
+        }
+
+        serializations.increment();
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(snap.size() * 64 + 64);
+        try {
+            writeMenu(raw, snap.getVersion(), snap.getFoods(), fieldMask, null, false);
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(raw.size() / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                raw.writeTo(out);
+            }
+            json = new MenuJson(raw.toByteArray(), gzip.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (cacheable) {
+            current.slots.compareAndSet(fieldMask, null, json);
+        }
+        return json;
+    }
+
+    /**
+     * 缓存版本只前进不后退：持有旧快照的请求晚到时不会把新版本的结果换掉
+     *
+     * @return 推进后的当前缓存
+     */
+    private VersionedMenus advance(long version) {
+        while (true) {
+            VersionedMenus current = menus.get();
+            if (version <= current.version) {
+                return current;
+            }
+            // 目录版本变化后整体丢弃旧结果
+            VersionedMenus next = new VersionedMenus(version);
+            if (menus.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * 将菜品列表直接写入输出流
+     *
+     * @param out        输出流，调用方负责关闭
+     * @param version    目录版本
+     * @param items      菜品
+     * @param fieldMask  输出字段掩码，见{@link FoodField}
+     * @param nextCursor 分页游标，非分页时为null
+     * @param hasMore    是否还有下一页
+     */
+    public void writeMenu(OutputStream out, long version, List<food> items, int fieldMask,
+                          String nextCursor, boolean hasMore) throws IOException {
+        FoodField[] fields = FoodField.values();
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // 输出流由容器管理，这里只刷新不关闭
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartObject();
+            gen.writeNumberField("version", version);
+            gen.writeArrayFieldStart("items");
+            for (food item : items) {
+                gen.writeStartObject();
+                for (FoodField field : fields) {
+                    if ((fieldMask & field.bit()) != 0) {
+                        field.write(gen, item);
+                    }
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            if (nextCursor != null || hasMore) {
+                gen.writeStringField("nextCursor", nextCursor);
+                gen.writeBooleanField("hasMore", hasMore);
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jsonHits", hits.sum());
+        result.put("jsonSerializations", serializations.sum());
+        return result;
+    }
+
+    /**
+     * 序列化结果：原始字节与gzip压缩字节
+     */
+    public record MenuJson(byte[] raw, byte[] gzip) {
+    }
+
+    private static final class VersionedMenus {
+        private final long version;
+        private final AtomicReferenceArray<MenuJson> slots = new AtomicReferenceArray<>(FoodField.ALL + 1);
+
+        private VersionedMenus(long version) {
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 菜单目录快照 - 某个目录版本下food表的不可变内存副本
+ * 快照中的food对象为只读，使用方不得修改
+ */
+public final class CatalogSnapshot {
+
+    private static final CatalogSnapshot EMPTY = new CatalogSnapshot(0L, 0L, Collections.emptyList(), false);
+
+    /**
+     * 目录版本号，0表示尚未加载
+     */
+    private final long version;
+
+    /**
+     * 快照加载时间（毫秒）
+     */
+    private final long loadedAt;
+
+    /**
+     * 按id升序排列的全部菜品
+     */
+    private final List<food> foods;
+
+    private final Map<Integer, food> byId;
+
+    private final Map<String, food> byName;
+
+    /**
+     * 列式存储模式下的菜品列，堆模式下为null
+     */
+    private final ColumnarFoodStore columns;
+
+    /**
+     * 列式存储模式下的菜名索引，元素为 (菜名哈希 << 32 | 位置)，升序
+     */
+    private final long[] nameHashes;
+
+    /**
+     * 与foods对齐的id数组，用于二分定位游标
+     */
+    private final int[] ids;
+
+    /**
+     * 每种排序方式的有序索引，元素为 (排序键 << 32 | 位置)；
+     * 由于foods按id升序，位置顺序即id顺序，整体有序即 (排序键, id) 有序
+     */
+    private final long[][] sortIndexes;
+
+    /**
+     * 供应时段位图，位序与foods一致
+     */
+    private final AvailabilityIndex availability;
+
+    private CatalogSnapshot(long version, long loadedAt, List<food> rows, boolean columnar) {
+        List<food> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingInt(food::getId));
+
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.ids = new int[sorted.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = sorted.get(i).getId();
+        }
+
+        if (columnar) {
+            // 列式存储不保留food对象，按id二分查找，按菜名哈希索引查找
+            this.columns = ColumnarFoodStore.of(sorted);
+            this.foods = columns;
+            this.byId = null;
+            this.byName = null;
+            this.nameHashes = buildNameHashes(sorted);
+        } else {
+            Map<Integer, food> idIndex = new HashMap<>(sorted.size() * 2);
+            Map<String, food> nameIndex = new HashMap<>(sorted.size() * 2);
+            for (food item : sorted) {
+                idIndex.put(item.getId(), item);
+                if (item.getName() != null) {
+                    // 同名菜品保留id最小的一条，与原先按名称查询的行为保持一致
+                    nameIndex.putIfAbsent(item.getName(), item);
+                }
+            }
+            this.columns = null;
+            this.foods = Collections.unmodifiableList(sorted);
+            this.byId = idIndex;
+            this.byName = nameIndex;
+            this.nameHashes = null;
+        }
+        this.sortIndexes = buildSortIndexes(sorted);
+        this.availability = AvailabilityIndex.build(sorted);
+    }
+
+    private static long[][] buildSortIndexes(List<food> sorted) {
+        CatalogSort[] sorts = CatalogSort.values();
+        long[][] indexes = new long[sorts.length][];
+        for (CatalogSort sort : sorts) {
+            if (sort == CatalogSort.ID || sort == CatalogSort.HOT) {
+                // 按id排序时位置本身就是索引；热度排序不使用静态索引
+                continue;
+            }
+            long[] index = new long[sorted.size()];
+            for (int pos = 0; pos < index.length; pos++) {
+                index[pos] = pack(sort.key(sorted.get(pos)), pos);
+            }
+            Arrays.sort(index);
+            indexes[sort.ordinal()] = index;
+        }
+        return indexes;
+    }
+
+    private static long[] buildNameHashes(List<food> sorted) {
+        long[] index = new long[sorted.size()];
+        int n = 0;
+        for (int pos = 0; pos < sorted.size(); pos++) {
+            String name = sorted.get(pos).getName();
+            if (name != null) {
+                index[n++] = pack(name.hashCode(), pos);
+            }
+        }
+        index = Arrays.copyOf(index, n);
+        Arrays.sort(index);
+        return index;
+    }
+
+    /**
+     * 根据数据库查询结果构建快照
+     */
+    public static CatalogSnapshot of(long version, List<food> rows) {
+        return of(version, rows, false);
+    }
+
+    /**
+     * 根据数据库查询结果构建快照
+     *
+     * @param columnar 是否使用列式存储（数值列为基本类型数组，文本在堆外），适合菜品数量很大的场景
+     */
+    public static CatalogSnapshot of(long version, List<food> rows, boolean columnar) {
+        return new CatalogSnapshot(version, System.currentTimeMillis(), rows, columnar);
+    }
+
+    /**
+     * 尚未加载的空快照
+     */
+    public static CatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    public boolean isLoaded() {
+        return version > 0;
+    }
+
+    public List<food> getFoods() {
+        return foods;
+    }
+
+    public int size() {
+        return foods.size();
+    }
+
+    public food findById(int id) {
+        if (byId != null) {
+            return byId.get(id);
+        }
+        int pos = Arrays.binarySearch(ids, id);
+        return pos < 0 ? null : foods.get(pos);
+    }
+
+    public food findByName(String name) {
+        if (name == null) {
+            return null;
+        }
+        if (byName != null) {
+            return byName.get(name);
+        }
+        // 同一哈希值的位置升序排列，第一个菜名相同的即id最小的一条
+        for (int i = lowerBound(nameHashes, pack(name.hashCode(), 0));
+             i < nameHashes.length && (int) (nameHashes[i] >> 32) == name.hashCode(); i++) {
+            int pos = (int) nameHashes[i];
+            if (columns.nameEquals(pos, name)) {
+                return foods.get(pos);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 列式存储模式下的菜品列，堆模式下返回null
+     */
+    public ColumnarFoodStore getColumns() {
+        return columns;
+    }
+
+    public AvailabilityIndex getAvailability() {
+        return availability;
+    }
+
+    /**
+     * 位置为pos的菜品是否满足查询条件，slot为-1时不按供应时段过滤
+     */
+    public boolean matches(int pos, CatalogQuery query, int slot) {
+        return (slot < 0 || availability.isAvailable(pos, slot)) && query.matches(foods.get(pos));
+    }
+
+    /**
+     * 基于游标（keyset）的分页查询
+     * 游标定位为一次二分查找，之后顺序扫描到凑满一页为止，不依赖偏移量
+     */
+    public CatalogPage page(CatalogQuery query) {
+        CatalogSort sort = query.sortOrder();
+        long[] index = sortIndexes[sort.ordinal()];
+        int limit = query.pageSize();
+        int n = foods.size();
+
+        int slot = query.availabilitySlot();
+        int i = startOf(index, query.getCursor());
+        List<food> items = new ArrayList<>(Math.min(limit, n));
+        food last = null;
+        for (; i < n && items.size() < limit; i++) {
+            int pos = positionAt(index, i);
+            if (matches(pos, query, slot)) {
+                food item = foods.get(pos);
+                items.add(item);
+                last = item;
+            }
+        }
+
+        boolean hasMore = false;
+        for (; i < n; i++) {
+            if (matches(positionAt(index, i), query, slot)) {
+                hasMore = true;
+                break;
+            }
+        }
+
+        String nextCursor = hasMore ? sort.key(last) + ":" + last.getId() : null;
+        return new CatalogPage(items, nextCursor, hasMore, version);
+    }
+
+    /**
+     * 解析游标并返回下一页在有序索引中的起始下标，无效游标从头开始
+     */
+    private int startOf(long[] index, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        int sep = cursor.indexOf(':');
+        int key;
+        int lastId;
+        try {
+            key = Integer.parseInt(cursor.substring(0, sep));
+            lastId = Integer.parseInt(cursor.substring(sep + 1));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+
+        // id不大于游标id的记录个数；即使该id已被删除，顺序依然成立
+        int pos = upperBound(ids, lastId);
+        if (index == null) {
+            return pos;
+        }
+        return lowerBound(index, pack(key, pos));
+    }
+
+    private static int positionAt(long[] index, int i) {
+        return index == null ? i : (int) index[i];
+    }
+
+    private static long pack(int key, int position) {
+        return ((long) key << 32) | position;
+    }
+
+    private static int upperBound(int[] values, int target) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(long[] values, long target) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
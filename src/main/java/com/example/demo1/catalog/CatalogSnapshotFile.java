@@ -0,0 +1,187 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 菜单目录快照文件 - food表的紧凑二进制副本，新实例启动时通过内存映射读取，不必等待数据库
+ * 格式（大端）：
+ * 文件头 magic(4) 格式版本(4) 目录版本(8) 保存时间(8) 行数(4) 数据长度(4) 数据CRC32(8)；
+ * 每行 id(4) price(8，单位为分) level stock availableFrom availableTo restaurantId 各4字节（可空列以Integer.MIN_VALUE表示null），
+ * 然后是name、info：长度(4，-1表示null) + UTF-8字节
+ */
+public final class CatalogSnapshotFile {
+
+    private static final int MAGIC = 0x444D4353; // "DMCS"
+    private static final int FORMAT = 3;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4 + 8;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+
+    private CatalogSnapshotFile() {
+    }
+
+    /**
+     * 从文件读出的目录内容
+     */
+    public record Contents(long version, long savedAt, List<food> foods) {
+    }
+
+    /**
+     * 写入快照文件；先写临时文件再原子改名，读取方不会看到写了一半的文件
+     */
+    public static void write(Path file, CatalogSnapshot snap) throws IOException {
+        List<byte[]> strings = new ArrayList<>(snap.size() * 2);
+        int payloadLength = 0;
+        for (food item : snap.getFoods()) {
+            byte[] name = utf8(item.getName());
+            byte[] info = utf8(item.getInfo());
+            strings.add(name);
+            strings.add(info);
+            payloadLength += 6 * 4 + 8 + 4 + (name == null ? 0 : name.length) + 4 + (info == null ? 0 : info.length);
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+        int s = 0;
+        for (food item : snap.getFoods()) {
+            payload.putInt(item.getId())
+                    .putLong(item.getPrice())
+                    .putInt(item.getLevel())
+                    .putInt(nullable(item.getStock()))
+                    .putInt(nullable(item.getAvailableFrom()))
+                    .putInt(nullable(item.getAvailableTo()))
+                    .putInt(item.getRestaurantId());
+            putBytes(payload, strings.get(s++));
+            putBytes(payload, strings.get(s++));
+        }
+        payload.flip();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(FORMAT)
+                .putLong(snap.getVersion())
+                .putLong(System.currentTimeMillis())
+                .putInt(snap.size())
+                .putInt(payloadLength)
+                .putLong(crc.getValue());
+        header.flip();
+
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer[] buffers = {header, payload};
+                while (header.hasRemaining() || payload.hasRemaining()) {
+                    channel.write(buffers);
+                }
+                channel.force(false);
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 通过内存映射读取快照文件
+     *
+     * @return 文件内容；文件不存在、格式不识别或校验和不一致时返回null
+     */
+    public static Contents read(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                return null;
+            }
+            long version = buffer.getLong();
+            long savedAt = buffer.getLong();
+            int count = buffer.getInt();
+            int payloadLength = buffer.getInt();
+            long checksum = buffer.getLong();
+            if (count < 0 || payloadLength != size - HEADER_BYTES) {
+                return null;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if (crc.getValue() != checksum) {
+                return null;
+            }
+
+            List<food> foods = new ArrayList<>(count);
+            try {
+                for (int i = 0; i < count; i++) {
+                    food item = new food();
+                    item.setId(buffer.getInt());
+                    item.setPrice(buffer.getLong());
+                    item.setLevel(buffer.getInt());
+                    item.setStock(nullable(buffer.getInt()));
+                    item.setAvailableFrom(nullable(buffer.getInt()));
+                    item.setAvailableTo(nullable(buffer.getInt()));
+                    item.setRestaurantId(buffer.getInt());
+                    item.setName(getString(buffer));
+                    item.setInfo(getString(buffer));
+                    foods.add(item);
+                }
+            } catch (RuntimeException e) {
+                // 校验和一致但内容无法解析，视为不同格式的文件
+                return null;
+            }
+            return buffer.hasRemaining() ? null : new Contents(version, savedAt, foods);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new IllegalStateException("字符串长度超出文件范围");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int nullable(Integer value) {
+        return value == null ? NULL_INT : value;
+    }
+
+    private static Integer nullable(int value) {
+        return value == NULL_INT ? null : value;
+    }
+}
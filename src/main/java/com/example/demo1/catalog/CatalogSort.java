@@ -0,0 +1,79 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+
+/**
+ * 菜单排序方式
+ * 每种排序都归一化为 (排序键升序, id升序)，降序排序通过对排序键取负实现，
+ * 因此游标只需记录最后一条记录的排序键和id
+ */
+public enum CatalogSort {
+
+    ID("id") {
+        @Override
+        public int key(food item) {
+            return 0;
+        }
+    },
+
+    PRICE_ASC("price") {
+        @Override
+        public int key(food item) {
+            // 单价不超过Money.MAX_PRICE，转换为int不会溢出
+            return (int) item.getPrice();
+        }
+    },
+
+    PRICE_DESC("price_desc") {
+        @Override
+        public int key(food item) {
+            return (int) -item.getPrice();
+        }
+    },
+
+    LEVEL_DESC("level_desc") {
+        @Override
+        public int key(food item) {
+            return -item.getLevel();
+        }
+    },
+
+    /**
+     * 按最近加购热度降序；排名随时变化，不建静态索引，游标为上一页最后一行的 "热度:id"，见TrendingService
+     */
+    HOT("hot") {
+        @Override
+        public int key(food item) {
+            return 0;
+        }
+    };
+
+    private final String param;
+
+    CatalogSort(String param) {
+        this.param = param;
+    }
+
+    /**
+     * 归一化后的排序键
+     */
+    public abstract int key(food item);
+
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * 解析请求参数，未知取值按id排序
+     */
+    public static CatalogSort parse(String param) {
+        if (param != null) {
+            for (CatalogSort sort : values()) {
+                if (sort.param.equalsIgnoreCase(param)) {
+                    return sort;
+                }
+            }
+        }
+        return ID;
+    }
+}
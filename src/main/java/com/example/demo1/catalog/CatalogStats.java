@@ -0,0 +1,80 @@
+package com.example.demo1.catalog;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 菜单目录缓存统计 - 命中/未命中次数与快照刷新耗时
+ */
+public class CatalogStats {
+
+    /**
+     * 直接由内存快照应答的读取次数
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * 因版本变化需要重新加载快照的读取次数
+     */
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder totalRefreshNanos = new LongAdder();
+    private final AtomicLong lastRefreshNanos = new AtomicLong();
+    private final AtomicLong maxRefreshNanos = new AtomicLong();
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordRefresh(long elapsedNanos) {
+        refreshes.increment();
+        totalRefreshNanos.add(elapsedNanos);
+        lastRefreshNanos.set(elapsedNanos);
+        maxRefreshNanos.accumulateAndGet(elapsedNanos, Math::max);
+    }
+
+    public void recordRefreshFailure() {
+        refreshFailures.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    /**
+     * 导出为便于JSON输出的键值对
+     */
+    public Map<String, Object> toMap() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long refreshCount = refreshes.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hits", hitCount);
+        result.put("misses", missCount);
+        result.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        result.put("refreshes", refreshCount);
+        result.put("refreshFailures", refreshFailures.sum());
+        result.put("lastRefreshMillis", lastRefreshNanos.get() / 1_000_000.0);
+        result.put("maxRefreshMillis", maxRefreshNanos.get() / 1_000_000.0);
+        result.put("avgRefreshMillis", refreshCount == 0 ? 0.0 : totalRefreshNanos.sum() / 1_000_000.0 / refreshCount);
+        return result;
+    }
+}
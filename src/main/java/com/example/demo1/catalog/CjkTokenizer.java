@@ -0,0 +1,75 @@
+package com.example.demo1.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 中文分词器 - 汉字按n-gram切分，字母数字按单词切分
+ * 索引时汉字同时输出单字和二元组，查询时单字查单字、多字查二元组，
+ * 这样输入"鸡"能命中所有含鸡的菜，输入"麻辣"只命中连续出现麻辣的菜
+ */
+public final class CjkTokenizer {
+
+    private CjkTokenizer() {
+    }
+
+    /**
+     * 索引分词
+     */
+    public static List<String> indexTokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(text, true, tokens);
+        return tokens;
+    }
+
+    /**
+     * 查询分词
+     */
+    public static List<String> queryTokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(text, false, tokens);
+        return tokens;
+    }
+
+    private static void tokenize(String text, boolean forIndex, List<String> out) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        int len = text.length();
+        int i = 0;
+        while (i < len) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < len && isCjk(text.charAt(i))) {
+                    i++;
+                }
+                emitCjkRun(text, start, i, forIndex, out);
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < len && Character.isLetterOrDigit(text.charAt(i)) && !isCjk(text.charAt(i))) {
+                    i++;
+                }
+                out.add(text.substring(start, i).toLowerCase());
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static void emitCjkRun(String text, int start, int end, boolean forIndex, List<String> out) {
+        int runLength = end - start;
+        if (forIndex || runLength == 1) {
+            for (int i = start; i < end; i++) {
+                out.add(String.valueOf(text.charAt(i)));
+            }
+        }
+        for (int i = start; i + 1 < end; i++) {
+            out.add(text.substring(i, i + 2));
+        }
+    }
+
+    static boolean isCjk(char c) {
+        return Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+    }
+}
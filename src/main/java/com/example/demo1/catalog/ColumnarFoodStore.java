@@ -0,0 +1,281 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 列式菜品存储 - 数值列保存在基本类型数组中，菜名和描述以UTF-8字节存放在堆外ByteBuffer里
+ * 作为只读的List&lt;food&gt;使用：get返回指向某一行的轻量视图，字段在读取时才从列中取出，
+ * 不为每道菜常驻food对象和String，菜品数量很大时显著减少堆占用和GC扫描量
+ */
+public final class ColumnarFoodStore extends AbstractList<food> implements RandomAccess {
+
+    private static final int NULL_INT = Integer.MIN_VALUE;
+
+    private final int size;
+    private final int[] ids;
+    private final long[] prices;
+    private final int[] levels;
+    private final int[] stocks;
+    private final int[] availableFrom;
+    private final int[] availableTo;
+    private final int[] restaurantIds;
+
+    /**
+     * 第i行的菜名位于 [offsets[2i], offsets[2i+1])，描述位于 [offsets[2i+1], offsets[2i+2])；
+     * 为null的字符串在nullNames/nullInfos位图中标记
+     */
+    private final int[] offsets;
+    private final long[] nullNames;
+    private final long[] nullInfos;
+
+    private final ByteBuffer arena;
+
+    private ColumnarFoodStore(List<food> rows) {
+        size = rows.size();
+        ids = new int[size];
+        prices = new long[size];
+        levels = new int[size];
+        stocks = new int[size];
+        availableFrom = new int[size];
+        availableTo = new int[size];
+        restaurantIds = new int[size];
+        offsets = new int[2 * size + 1];
+        nullNames = new long[(size + 63) >>> 6];
+        nullInfos = new long[(size + 63) >>> 6];
+
+        byte[][] strings = new byte[2 * size][];
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            food item = rows.get(i);
+            ids[i] = item.getId();
+            prices[i] = item.getPrice();
+            levels[i] = item.getLevel();
+            stocks[i] = nullable(item.getStock());
+            availableFrom[i] = nullable(item.getAvailableFrom());
+            availableTo[i] = nullable(item.getAvailableTo());
+            restaurantIds[i] = item.getRestaurantId();
+            strings[2 * i] = utf8(item.getName(), nullNames, i);
+            strings[2 * i + 1] = utf8(item.getInfo(), nullInfos, i);
+            total += strings[2 * i].length + strings[2 * i + 1].length;
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("菜品文本超出列式存储的容量");
+        }
+
+        arena = ByteBuffer.allocateDirect((int) total);
+        for (int i = 0; i < strings.length; i++) {
+            offsets[i] = arena.position();
+            arena.put(strings[i]);
+        }
+        offsets[strings.length] = arena.position();
+    }
+
+    /**
+     * 按给定顺序构建，行号与rows的下标一致
+     */
+    public static ColumnarFoodStore of(List<food> rows) {
+        return new ColumnarFoodStore(rows);
+    }
+
+    @Override
+    public food get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return new FoodView(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int id(int row) {
+        return ids[row];
+    }
+
+    public long price(int row) {
+        return prices[row];
+    }
+
+    public int level(int row) {
+        return levels[row];
+    }
+
+    public String name(int row) {
+        return isNull(nullNames, row) ? null : decode(offsets[2 * row], offsets[2 * row + 1]);
+    }
+
+    public String info(int row) {
+        return isNull(nullInfos, row) ? null : decode(offsets[2 * row + 1], offsets[2 * row + 2]);
+    }
+
+    /**
+     * 不解码直接比较菜名的UTF-8字节
+     */
+    public boolean nameEquals(int row, String name) {
+        if (name == null || isNull(nullNames, row)) {
+            return false;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int from = offsets[2 * row];
+        if (offsets[2 * row + 1] - from != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (arena.get(from + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 堆上的列数组字节数
+     */
+    public long heapBytes() {
+        return (long) size * 7 * Integer.BYTES + (long) offsets.length * Integer.BYTES
+                + (long) (nullNames.length + nullInfos.length) * Long.BYTES;
+    }
+
+    /**
+     * 堆外文本区字节数
+     */
+    public long offHeapBytes() {
+        return arena.capacity();
+    }
+
+    private String decode(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        arena.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value, long[] nullMask, int row) {
+        if (value == null) {
+            nullMask[row >>> 6] |= 1L << row;
+            return new byte[0];
+        }
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean isNull(long[] nullMask, int row) {
+        return (nullMask[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private static int nullable(Integer value) {
+        return value == null ? NULL_INT : value;
+    }
+
+    private static Integer nullable(int value) {
+        return value == NULL_INT ? null : value;
+    }
+
+    /**
+     * 指向某一行的只读视图，只持有行号；渲染、序列化通过getter读取列数据
+     */
+    private final class FoodView extends food {
+
+        private final int row;
+
+        private FoodView(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public int getId() {
+            return ids[row];
+        }
+
+        @Override
+        public long getPrice() {
+            return prices[row];
+        }
+
+        @Override
+        public int getLevel() {
+            return levels[row];
+        }
+
+        @Override
+        public String getName() {
+            return name(row);
+        }
+
+        @Override
+        public String getInfo() {
+            return info(row);
+        }
+
+        @Override
+        public Integer getStock() {
+            return nullable(stocks[row]);
+        }
+
+        @Override
+        public Integer getAvailableFrom() {
+            return nullable(availableFrom[row]);
+        }
+
+        @Override
+        public Integer getAvailableTo() {
+            return nullable(availableTo[row]);
+        }
+
+        @Override
+        public int getRestaurantId() {
+            return restaurantIds[row];
+        }
+
+        @Override
+        public void setId(int id) {
+            throw new UnsupportedOperationException("列式存储中的菜品只读");
+        }
+
+        @Override
+        public void setPrice(long price) {
+            throw new UnsupportedOperationException("列式存储中的菜品只读");
+        }
+
+        @Override
+        public void setLevel(int level) {
+            throw new UnsupportedOperationException("列式存储中的菜品只读");
+        }
+
+        @Override
+        public void setName(String name) {
+            throw new UnsupportedOperationException("列式存储中的菜品只读");
+        }
+
+        @Override
+        public void setInfo(String info) {
+            throw new UnsupportedOperationException("列式存储中的菜品只读");
+        }
+
+        @Override
+        public void setStock(Integer stock) {
+            throw new UnsupportedOperationException("列式存储中的菜品只读");
+        }
+
+        @Override
+        public void setAvailableFrom(Integer availableFrom) {
+            throw new UnsupportedOperationException("列式存储中的菜品只读");
+        }
+
+        @Override
+        public void setAvailableTo(Integer availableTo) {
+            throw new UnsupportedOperationException("列式存储中的菜品只读");
+        }
+
+        @Override
+        public void setRestaurantId(int restaurantId) {
+            throw new UnsupportedOperationException("列式存储中的菜品只读");
+        }
+    }
+}
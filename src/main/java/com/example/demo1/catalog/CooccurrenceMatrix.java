@@ -0,0 +1,168 @@
+package com.example.demo1.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 菜品共现矩阵 - 记录每两道菜出现在同一订单中的次数
+ * 按行稀疏存储：外层按菜品id开放寻址，每行是一个IntIntHashMap（同单菜品id -> 次数），
+ * 对称保存，查询某道菜的搭配只需扫描一行
+ */
+public final class CooccurrenceMatrix {
+
+    /**
+     * 每个订单最多计入的菜品数，避免超大订单产生平方级的更新
+     */
+    public static final int MAX_ITEMS_PER_ORDER = 50;
+
+    private static final int FREE = Integer.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int[] rowKeys;
+    private IntIntHashMap[] rows;
+    private int rowCount;
+    private int mask;
+
+    private long orders;
+    private long pairs;
+
+    public CooccurrenceMatrix() {
+        allocate(64);
+    }
+
+    /**
+     * 计入一个订单中的全部菜品，同一订单内重复的id只计一次；
+     * 超过MAX_ITEMS_PER_ORDER时按订单中的顺序截取，不按id排序，否则总是丢掉id大的菜品
+     */
+    public void addOrder(int[] foodIds) {
+        int[] ids = Arrays.stream(foodIds).distinct().limit(MAX_ITEMS_PER_ORDER).toArray();
+        if (ids.length < 2) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                IntIntHashMap row = rowFor(ids[i]);
+                for (int j = 0; j < ids.length; j++) {
+                    if (i != j && row.addTo(ids[j], 1) == 1) {
+                        pairs++;
+                    }
+                }
+            }
+            orders++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 与指定菜品同单次数最多的菜品
+     *
+     * @param foodId 菜品id
+     * @param limit  最多返回条数
+     * @return 按次数降序、id升序排列
+     */
+    public List<Companion> companions(int foodId, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            IntIntHashMap row = findRow(foodId);
+            if (row == null) {
+                return List.of();
+            }
+            // (次数 << 32 | 反转的id) 升序排序后从尾部取，即次数降序、id升序
+            long[] packed = new long[row.size()];
+            int[] n = {0};
+            row.forEach((id, count) -> packed[n[0]++] = ((long) count << 32) | (0xFFFFFFFFL & ~id));
+            Arrays.sort(packed);
+            int size = Math.min(limit, packed.length);
+            List<Companion> result = new ArrayList<>(size);
+            for (int i = packed.length - 1; i >= packed.length - size; i--) {
+                result.add(new Companion(~(int) packed[i], (int) (packed[i] >>> 32)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long orderCount() {
+        lock.readLock().lock();
+        try {
+            return orders;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 非零的有序菜品对数量（对称保存，每对计两次）
+     */
+    public long pairCount() {
+        lock.readLock().lock();
+        try {
+            return pairs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private IntIntHashMap findRow(int foodId) {
+        int i = slot(foodId);
+        return rowKeys[i] == foodId ? rows[i] : null;
+    }
+
+    private IntIntHashMap rowFor(int foodId) {
+        int i = slot(foodId);
+        if (rowKeys[i] != foodId) {
+            rowKeys[i] = foodId;
+            rows[i] = new IntIntHashMap();
+            if (++rowCount * 2 > rowKeys.length) {
+                grow();
+                i = slot(foodId);
+            }
+        }
+        return rows[i];
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        int i = (h ^ (h >>> 16)) & mask;
+        while (rowKeys[i] != FREE && rowKeys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void grow() {
+        int[] oldKeys = rowKeys;
+        IntIntHashMap[] oldRows = rows;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int j = slot(oldKeys[i]);
+                rowKeys[j] = oldKeys[i];
+                rows[j] = oldRows[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        rowKeys = new int[capacity];
+        rows = new IntIntHashMap[capacity];
+        Arrays.fill(rowKeys, FREE);
+        mask = capacity - 1;
+    }
+
+    /**
+     * 搭配菜品及同单次数
+     */
+    public record Companion(int foodId, int count) {
+    }
+}
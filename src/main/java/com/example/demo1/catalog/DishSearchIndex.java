@@ -0,0 +1,210 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 菜品全文检索倒排索引 - 覆盖food.name与food.info，使用BM25打分
+ * 目录快照切换时只对新增、修改和删除的菜品做增量更新
+ */
+public class DishSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * 菜名中的词频按此倍数计入，使菜名命中排在描述命中之前
+     */
+    private static final int NAME_BOOST = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private final Map<Integer, IndexedDoc> docs = new HashMap<>();
+
+    private long totalLength;
+
+    /**
+     * 根据新旧快照的差异增量更新索引
+     */
+    public void sync(CatalogSnapshot previous, CatalogSnapshot next) {
+        lock.writeLock().lock();
+        try {
+            for (food item : next.getFoods()) {
+                food old = previous.findById(item.getId());
+                if (old == null || !Objects.equals(old.getName(), item.getName())
+                        || !Objects.equals(old.getInfo(), item.getInfo())) {
+                    removeDoc(item.getId());
+                    addDoc(item);
+                }
+            }
+            for (food old : previous.getFoods()) {
+                if (next.findById(old.getId()) == null) {
+                    removeDoc(old.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 检索菜品
+     *
+     * @param query 查询文本
+     * @param limit 最多返回条数
+     * @return 按相关度降序排列的菜品ID
+     */
+    public int[] search(String query, int limit) {
+        List<String> terms = CjkTokenizer.queryTokens(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = docs.size();
+            if (docCount == 0) {
+                return new int[0];
+            }
+            double avgLength = (double) totalLength / docCount;
+
+            Map<Integer, double[]> scores = new HashMap<>();
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (docCount - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int docId = list.docIds[i];
+                    int tf = list.freqs[i];
+                    int length = docs.get(docId).length;
+                    double norm = tf + K1 * (1 - B + B * length / avgLength);
+                    double score = idf * tf * (K1 + 1) / norm;
+                    scores.computeIfAbsent(docId, k -> new double[1])[0] += score;
+                }
+            }
+            return topK(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int[] topK(Map<Integer, double[]> scores, int limit) {
+        // 小顶堆保留得分最高的limit条，同分时id小的优先
+        PriorityQueue<Map.Entry<Integer, double[]>> heap = new PriorityQueue<>(limit + 1, (a, b) -> {
+            int cmp = Double.compare(a.getValue()[0], b.getValue()[0]);
+            return cmp != 0 ? cmp : Integer.compare(b.getKey(), a.getKey());
+        });
+        for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        int[] result = new int[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap.poll().getKey();
+        }
+        return result;
+    }
+
+    private void addDoc(food item) {
+        Map<String, Integer> freqs = new HashMap<>();
+        for (String token : CjkTokenizer.indexTokens(item.getName())) {
+            freqs.merge(token, NAME_BOOST, Integer::sum);
+        }
+        for (String token : CjkTokenizer.indexTokens(item.getInfo())) {
+            freqs.merge(token, 1, Integer::sum);
+        }
+
+        int length = 0;
+        String[] terms = new String[freqs.size()];
+        int t = 0;
+        for (Map.Entry<String, Integer> entry : freqs.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new Postings()).add(item.getId(), entry.getValue());
+            length += entry.getValue();
+            terms[t++] = entry.getKey();
+        }
+        docs.put(item.getId(), new IndexedDoc(terms, length));
+        totalLength += length;
+    }
+
+    private void removeDoc(int docId) {
+        IndexedDoc doc = docs.remove(docId);
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(docId) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= doc.length;
+    }
+
+    /**
+     * 已索引文档的词项列表和长度，删除时据此定位倒排链
+     */
+    private static final class IndexedDoc {
+        private final String[] terms;
+        private final int length;
+
+        private IndexedDoc(String[] terms, int length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    /**
+     * 倒排链 - 平行的基本类型数组保存文档ID和词频
+     */
+    private static final class Postings {
+        private int[] docIds = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        private void add(int docId, int freq) {
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docIds[size] = docId;
+            freqs[size] = freq;
+            size++;
+        }
+
+        private boolean remove(int docId) {
+            for (int i = 0; i < size; i++) {
+                if (docIds[i] == docId) {
+                    size--;
+                    docIds[i] = docIds[size];
+                    freqs[i] = freqs[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * 菜名联想前缀树 - 同时支持汉字、全拼和拼音首字母前缀
+ * 构建完成后压缩为平行数组（子节点按字符排序，二分查找），
+ * 每个节点预先保存按热度排序的前N个菜品，查询时只需沿前缀下行并复制结果区间
+ */
+public final class DishSuggestTrie {
+
+    private static final HanyuPinyinOutputFormat PINYIN_FORMAT = new HanyuPinyinOutputFormat();
+
+    static {
+        PINYIN_FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        PINYIN_FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        PINYIN_FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    public static final DishSuggestTrie EMPTY = build(List.of(), item -> 0, 1);
+
+    /**
+     * 节点i的子边为 edgeLabels/edgeTargets[childStart[i], childStart[i + 1])
+     */
+    private final int[] childStart;
+    private final char[] edgeLabels;
+    private final int[] edgeTargets;
+
+    /**
+     * 节点i的候选菜品为 topIds[topStart[i], topStart[i + 1])
+     */
+    private final int[] topStart;
+    private final int[] topIds;
+
+    private DishSuggestTrie(int[] childStart, char[] edgeLabels, int[] edgeTargets, int[] topStart, int[] topIds) {
+        this.childStart = childStart;
+        this.edgeLabels = edgeLabels;
+        this.edgeTargets = edgeTargets;
+        this.topStart = topStart;
+        this.topIds = topIds;
+    }
+
+    /**
+     * 查询前缀对应的候选菜品
+     *
+     * @param prefix 汉字或拼音前缀，忽略大小写和空白
+     * @param limit  最多返回条数，不超过构建时的topN
+     * @return 按热度降序排列的菜品ID
+     */
+    public int[] suggest(String prefix, int limit) {
+        if (prefix == null) {
+            return new int[0];
+        }
+        int node = 0;
+        boolean matched = false;
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            node = child(node, Character.toLowerCase(c));
+            if (node < 0) {
+                return new int[0];
+            }
+            matched = true;
+        }
+        if (!matched) {
+            return new int[0];
+        }
+        int from = topStart[node];
+        // 先比较条数再相加，limit很大时不会溢出
+        int to = from + Math.min(topStart[node + 1] - from, Math.max(limit, 0));
+        return Arrays.copyOfRange(topIds, from, to);
+    }
+
+    public int nodeCount() {
+        return topStart.length - 1;
+    }
+
+    private int child(int node, char label) {
+        int low = childStart[node];
+        int high = childStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char c = edgeLabels[mid];
+            if (c < label) {
+                low = mid + 1;
+            } else if (c > label) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 根据菜品列表构建前缀树
+     *
+     * @param foods      菜品
+     * @param popularity 热度，越大越靠前，相同时id小的靠前
+     * @param topN       每个前缀保留的候选数量
+     */
+    public static DishSuggestTrie build(List<food> foods, ToIntFunction<food> popularity, int topN) {
+        List<food> ranked = new ArrayList<>(foods);
+        ranked.sort(Comparator.comparingInt(popularity).reversed().thenComparingInt(food::getId));
+
+        // 按热度从高到低插入，节点候选列表按插入顺序截断即为前N名
+        BuildNode root = new BuildNode();
+        List<BuildNode> nodes = new ArrayList<>();
+        nodes.add(root);
+        for (food item : ranked) {
+            for (String key : keysOf(item.getName())) {
+                insert(root, key, item.getId(), topN, nodes);
+            }
+        }
+        return compact(nodes);
+    }
+
+    private static void insert(BuildNode root, String key, int id, int topN, List<BuildNode> nodes) {
+        BuildNode node = root;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            BuildNode next = node.children.get(c);
+            if (next == null) {
+                next = new BuildNode();
+                next.index = nodes.size();
+                nodes.add(next);
+                node.children.put(c, next);
+            }
+            node = next;
+            // 全拼与首字母键共享首字符节点，同一菜品只记录一次
+            if (node.top.size() < topN && !node.top.contains(id)) {
+                node.top.add(id);
+            }
+        }
+    }
+
+    private static DishSuggestTrie compact(List<BuildNode> nodes) {
+        int nodeCount = nodes.size();
+        int[] childStart = new int[nodeCount + 1];
+        int[] topStart = new int[nodeCount + 1];
+        int edgeCount = 0;
+        int topCount = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            childStart[i] = edgeCount;
+            topStart[i] = topCount;
+            edgeCount += nodes.get(i).children.size();
+            topCount += nodes.get(i).top.size();
+        }
+        childStart[nodeCount] = edgeCount;
+        topStart[nodeCount] = topCount;
+
+        char[] edgeLabels = new char[edgeCount];
+        int[] edgeTargets = new int[edgeCount];
+        int[] topIds = new int[topCount];
+        int e = 0;
+        int t = 0;
+        for (BuildNode node : nodes) {
+            // TreeMap保证子边按字符有序
+            for (var entry : node.children.entrySet()) {
+                edgeLabels[e] = entry.getKey();
+                edgeTargets[e] = entry.getValue().index;
+                e++;
+            }
+            for (int id : node.top) {
+                topIds[t++] = id;
+            }
+        }
+        return new DishSuggestTrie(childStart, edgeLabels, edgeTargets, topStart, topIds);
+    }
+
+    /**
+     * 菜名的全部索引键：汉字原文、全拼、拼音首字母
+     */
+    static Set<String> keysOf(String name) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (name == null) {
+            return keys;
+        }
+        StringBuilder hanzi = new StringBuilder();
+        StringBuilder full = new StringBuilder();
+        StringBuilder initials = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            char lower = Character.toLowerCase(c);
+            hanzi.append(lower);
+            String pinyin = toPinyin(c);
+            if (pinyin != null) {
+                full.append(pinyin);
+                initials.append(pinyin.charAt(0));
+            } else {
+                full.append(lower);
+                initials.append(lower);
+            }
+        }
+        keys.add(hanzi.toString());
+        keys.add(full.toString());
+        keys.add(initials.toString());
+        keys.remove("");
+        return keys;
+    }
+
+    /**
+     * 汉字取第一个读音，非汉字返回null
+     */
+    private static String toPinyin(char c) {
+        if (!CjkTokenizer.isCjk(c)) {
+            return null;
+        }
+        try {
+            String[] readings = PinyinHelper.toHanyuPinyinStringArray(c, PINYIN_FORMAT);
+            return readings == null || readings.length == 0 ? null : readings[0];
+        } catch (BadHanyuPinyinOutputFormatCombination e) {
+            return null;
+        }
+    }
+
+    private static final class BuildNode {
+        private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        private final List<Integer> top = new ArrayList<>(2);
+        private int index;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * JSON接口可选择输出的菜品字段，字段集合以位掩码表示
+ */
+public enum FoodField {
+    ID("id") {
+        @Override
+        void write(JsonGenerator gen, food item) throws IOException {
+            gen.writeNumberField(getName(), item.getId());
+        }
+    },
+    NAME("name") {
+        @Override
+        void write(JsonGenerator gen, food item) throws IOException {
+            gen.writeStringField(getName(), item.getName());
+        }
+    },
+    PRICE("price") {
+        @Override
+        void write(JsonGenerator gen, food item) throws IOException {
+            gen.writeNumberField(getName(), item.getPrice());
+        }
+    },
+    LEVEL("level") {
+        @Override
+        void write(JsonGenerator gen, food item) throws IOException {
+            gen.writeNumberField(getName(), item.getLevel());
+        }
+    },
+    INFO("info") {
+        @Override
+        void write(JsonGenerator gen, food item) throws IOException {
+            gen.writeStringField(getName(), item.getInfo());
+        }
+    };
+
+    /**
+     * 全部字段的掩码
+     */
+    public static final int ALL = (1 << values().length) - 1;
+
+    private final String name;
+
+    FoodField(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    abstract void write(JsonGenerator gen, food item) throws IOException;
+
+    /**
+     * 解析逗号分隔的字段列表，忽略未知字段；为空或全部无效时返回全部字段
+     */
+    public static int parseMask(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        int mask = 0;
+        for (String part : fields.split(",")) {
+            String key = part.trim();
+            for (FoodField field : values()) {
+                if (field.name.equalsIgnoreCase(key)) {
+                    mask |= field.bit();
+                }
+            }
+        }
+        return mask == 0 ? ALL : mask;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo1.catalog;
+
+import java.util.Arrays;
+
+/**
+ * int到int的开放寻址哈希表（线性探测），不装箱，用于大量小而稀疏的计数表
+ * 不支持删除；非线程安全，由使用方加锁
+ */
+public final class IntIntHashMap {
+
+    private static final int FREE = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    public IntIntHashMap() {
+        this(4);
+    }
+
+    public IntIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected * 2 - 1, 3)) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * 读取计数，不存在时返回0
+     */
+    public int get(int key) {
+        checkKey(key);
+        int i = indexOf(key);
+        return keys[i] == key ? values[i] : 0;
+    }
+
+    /**
+     * 累加计数并返回新值
+     */
+    public int addTo(int key, int delta) {
+        checkKey(key);
+        int i = indexOf(key);
+        if (keys[i] == key) {
+            values[i] += delta;
+            return values[i];
+        }
+        keys[i] = key;
+        values[i] = delta;
+        // 装载因子不超过0.5，探测链保持很短
+        if (++size * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+        return delta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按槽位遍历，回调中不得修改本表
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                visitor.visit(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int indexOf(int key) {
+        int i = mix(key) & mask;
+        while (keys[i] != FREE && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int j = indexOf(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void checkKey(int key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("不支持的键: " + key);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(int key, int value);
+    }
+}
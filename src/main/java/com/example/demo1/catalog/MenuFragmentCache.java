@@ -0,0 +1,174 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import com.example.demo1.service.ImageVariantService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 菜单网格片段缓存 - 按餐厅分区，分区内按 (目录版本, 语言, 查询条件) 缓存menu-grid.html的渲染结果
+ * 网格与用户无关，同一版本下只渲染一次，页面通过th:utext原样嵌入
+ */
+@Component
+public class MenuFragmentCache {
+
+    /**
+     * 每个分区最多缓存的片段数，写满后按写入顺序淘汰最早的片段，避免任意组合的过滤参数撑大内存
+     */
+    private static final int MAX_ENTRIES = 512;
+
+    /**
+     * 不区分餐厅的全店菜单所用的分区
+     */
+    public static final int ALL_RESTAURANTS = 0;
+
+    private static final Set<String> GRID_SELECTOR = Set.of("grid");
+
+    @Autowired
+    private ITemplateEngine templateEngine;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    /**
+     * 餐厅ID -> 该餐厅的片段分区；全店菜单（/food/list）使用分区0
+     */
+    private final ConcurrentHashMap<Integer, Partition> partitions = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 获取全店菜单网格HTML，未命中时渲染并缓存
+     */
+    public String render(CatalogPage page, CatalogQuery query, Locale locale) {
+        return render(ALL_RESTAURANTS, page, query, locale);
+    }
+
+    /**
+     * 获取某个餐厅的菜单网格HTML；每个餐厅各自计数和淘汰，大菜单写满自己的分区也不影响其他餐厅
+     */
+    public String render(int restaurantId, CatalogPage page, CatalogQuery query, Locale locale) {
+        Partition partition = partitions.computeIfAbsent(restaurantId, id -> new Partition());
+        long version = page.getVersion();
+        long current = partition.advance(version);
+
+        FragmentKey key = new FragmentKey(version, locale, query.cacheKey());
+        String html = partition.fragments.get(key);
+        if (html != null) {
+            hits.increment();
+            return html;
+        }
+
+        misses.increment();
+        long start = System.nanoTime();
+        Context context = new Context(locale);
+        context.setVariable("foodList", page.getItems());
+        context.setVariable("images", imageVariantService);
+        html = templateEngine.process("menu-grid", GRID_SELECTOR, context);
+        renderNanos.add(System.nanoTime() - start);
+
+        // 热度排序的结果随时变化，不缓存；旧快照渲染的页面也不缓存，不会再被命中
+        if (query.sortOrder() != CatalogSort.HOT && version == current) {
+            evictions.add(partition.put(key, html));
+        }
+        return html;
+    }
+
+    /**
+     * 丢弃某个餐厅的全部片段
+     */
+    public void evict(int restaurantId) {
+        partitions.remove(restaurantId);
+    }
+
+    /**
+     * 缓存统计：命中次数、渲染次数与平均渲染耗时
+     */
+    public Map<String, Object> stats() {
+        long missCount = misses.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        int entries = 0;
+        for (Partition partition : partitions.values()) {
+            entries += partition.fragments.size();
+        }
+        result.put("fragmentPartitions", partitions.size());
+        result.put("fragmentEntries", entries);
+        result.put("fragmentHits", hits.sum());
+        result.put("fragmentRenders", missCount);
+        result.put("fragmentEvictions", evictions.sum());
+        result.put("avgRenderMicros", missCount == 0 ? 0.0 : renderNanos.sum() / 1000.0 / missCount);
+        return result;
+    }
+
+    private record FragmentKey(long version, Locale locale, String query) {
+    }
+
+    private static final class Partition {
+        private final ConcurrentHashMap<FragmentKey, String> fragments = new ConcurrentHashMap<>();
+
+        /**
+         * 片段的写入顺序，用于写满时淘汰
+         */
+        private final ConcurrentLinkedQueue<FragmentKey> order = new ConcurrentLinkedQueue<>();
+
+        private final AtomicLong cachedVersion = new AtomicLong();
+
+        /**
+         * 版本只前进不后退：只有把版本推进的线程丢弃旧版本的片段，且只丢弃旧版本的，
+         * 并发请求带着较旧的快照到达时不会清掉新版本刚写入的片段
+         *
+         * @return 推进后的当前版本
+         */
+        private long advance(long version) {
+            while (true) {
+                long seen = cachedVersion.get();
+                if (version <= seen) {
+                    return seen;
+                }
+                if (cachedVersion.compareAndSet(seen, version)) {
+                    fragments.keySet().removeIf(key -> key.version() < version);
+                    order.removeIf(key -> key.version() < version);
+                    return version;
+                }
+            }
+        }
+
+        /**
+         * 写入片段，写满时淘汰最早写入的片段
+         *
+         * @return 淘汰的片段数
+         */
+        private int put(FragmentKey key, String html) {
+            if (fragments.putIfAbsent(key, html) != null) {
+                return 0;
+            }
+            order.offer(key);
+            int evicted = 0;
+            while (fragments.size() > MAX_ENTRIES) {
+                FragmentKey eldest = order.poll();
+                if (eldest == null) {
+                    break;
+                }
+                if (fragments.remove(eldest) != null) {
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+    }
+}
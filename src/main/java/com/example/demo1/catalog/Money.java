@@ -0,0 +1,47 @@
+package com.example.demo1.catalog;
+
+import java.math.BigDecimal;
+
+/**
+ * 金额统一以long保存，单位为分；菜单、购物车、结算与订单都使用同一表示，
+ * 只在解析输入和页面显示时与元互相转换，中间不经过double
+ */
+public final class Money {
+
+    public static final long FEN_PER_YUAN = 100;
+
+    /**
+     * 单价上限，保证排序键等按int处理的地方不溢出
+     */
+    public static final long MAX_PRICE = Integer.MAX_VALUE;
+
+    private Money() {
+    }
+
+    public static long ofYuan(long yuan) {
+        return yuan * FEN_PER_YUAN;
+    }
+
+    /**
+     * 解析以元为单位的金额，如 "28"、"28.5"、"28.50"，最多两位小数
+     *
+     * @throws NumberFormatException 格式错误或超过两位小数
+     */
+    public static long parse(String yuan) {
+        try {
+            return new BigDecimal(yuan.trim()).movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("金额最多两位小数: " + yuan);
+        }
+    }
+
+    /**
+     * 格式化为以元为单位、两位小数的字符串，如 2850 -> "28.50"
+     */
+    public static String format(long fen) {
+        String sign = fen < 0 ? "-" : "";
+        long abs = Math.abs(fen);
+        long cents = abs % FEN_PER_YUAN;
+        return sign + abs / FEN_PER_YUAN + (cents < 10 ? ".0" : ".") + cents;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.demo1.catalog;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 菜品库存台账 - 按菜品id直接下标访问的计数单元数组，所有扣减与归还都是单个计数器上的CAS
+ * 每个单元记录：可售数量、已预占数量、已售出但尚未写回数据库的数量
+ * 与数据库同步时按 数据库库存 - 待写回 - 已预占 重新计算可售数量；
+ * 与预占、结算并发时只可能少算可售数量（少卖），不会多算（超卖）。
+ * 台账只反映本节点的预占与售出，多节点部署时不能作为是否超卖的依据，需在数据库中按条件扣减
+ */
+public final class StockLedger {
+
+    /**
+     * 不限量
+     */
+    public static final int UNLIMITED = -1;
+
+    /**
+     * 下标为菜品id；扩容时复制单元引用，旧数组上的并发操作仍作用于同一单元
+     */
+    private volatile Cell[] cells = new Cell[0];
+
+    /**
+     * 按数据库库存同步单元，stock为null表示不限量；只有库存值变化的菜品才会重算
+     */
+    public synchronized void sync(int foodId, Integer stock) {
+        Cell cell = cellFor(foodId);
+        int dbStock = stock == null ? UNLIMITED : Math.max(stock, 0);
+        if (cell.syncedStock == dbStock) {
+            return;
+        }
+        cell.syncedStock = dbStock;
+        if (dbStock == UNLIMITED) {
+            cell.available.set(UNLIMITED);
+        } else {
+            // 先读预占再读待写回：结算时先加待写回再减预占，这个顺序下同一份数量至少被扣一次
+            int reserved = cell.reserved.get();
+            int pending = cell.pendingSold.get();
+            cell.available.set(Math.max(0, dbStock - pending - reserved));
+        }
+    }
+
+    /**
+     * 预占库存
+     *
+     * @return 是否成功；未登记的菜品视为不限量
+     */
+    public boolean reserve(int foodId, int quantity) {
+        Cell cell = cell(foodId);
+        if (cell == null) {
+            return true;
+        }
+        // 先登记预占再扣可售数量，同步时看到的预占只多不少
+        cell.reserved.addAndGet(quantity);
+        while (true) {
+            int available = cell.available.get();
+            if (available == UNLIMITED) {
+                return true;
+            }
+            if (available < quantity) {
+                cell.reserved.addAndGet(-quantity);
+                return false;
+            }
+            if (cell.available.compareAndSet(available, available - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 归还预占的库存
+     */
+    public void release(int foodId, int quantity) {
+        Cell cell = cell(foodId);
+        if (cell == null) {
+            return;
+        }
+        while (true) {
+            int available = cell.available.get();
+            if (available == UNLIMITED || cell.available.compareAndSet(available, available + quantity)) {
+                break;
+            }
+        }
+        cell.reserved.addAndGet(-quantity);
+    }
+
+    /**
+     * 预占转为售出，等待写回数据库
+     */
+    public void commit(int foodId, int quantity) {
+        Cell cell = cell(foodId);
+        if (cell == null) {
+            return;
+        }
+        cell.pendingSold.addAndGet(quantity);
+        cell.reserved.addAndGet(-quantity);
+    }
+
+    /**
+     * 当前可售数量，不限量或未登记时返回UNLIMITED
+     */
+    public int available(int foodId) {
+        Cell cell = cell(foodId);
+        return cell == null ? UNLIMITED : cell.available.get();
+    }
+
+    public int reserved(int foodId) {
+        Cell cell = cell(foodId);
+        return cell == null ? 0 : cell.reserved.get();
+    }
+
+    /**
+     * 待写回数据库的售出数量
+     */
+    public int pendingSold(int foodId) {
+        Cell cell = cell(foodId);
+        return cell == null ? 0 : cell.pendingSold.get();
+    }
+
+    /**
+     * 所有待写回的菜品：菜品id -> 数量
+     */
+    public Map<Integer, Integer> pendingSold() {
+        Cell[] current = cells;
+        Map<Integer, Integer> result = new LinkedHashMap<>();
+        for (int id = 0; id < current.length; id++) {
+            Cell cell = current[id];
+            int n = cell == null ? 0 : cell.pendingSold.get();
+            if (n > 0) {
+                result.put(id, n);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 写回成功后扣除已写回的数量，数据库库存同样减少了这些，记录的同步值随之调整，下次同步不会重算
+     */
+    public synchronized void written(int foodId, int quantity) {
+        Cell cell = cell(foodId);
+        if (cell != null) {
+            cell.pendingSold.addAndGet(-quantity);
+            if (cell.syncedStock != UNLIMITED && cell.syncedStock != Integer.MIN_VALUE) {
+                cell.syncedStock = Math.max(0, cell.syncedStock - quantity);
+            }
+        }
+    }
+
+    /**
+     * 数组容量（最大菜品id + 1）
+     */
+    public int capacity() {
+        return cells.length;
+    }
+
+    private Cell cell(int foodId) {
+        Cell[] current = cells;
+        return foodId >= 0 && foodId < current.length ? current[foodId] : null;
+    }
+
+    private Cell cellFor(int foodId) {
+        Cell[] current = cells;
+        Cell cell = foodId < current.length ? current[foodId] : null;
+        if (cell != null) {
+            return cell;
+        }
+        Cell[] next = current;
+        if (foodId >= current.length) {
+            next = new Cell[Math.max(foodId + 1, current.length * 2)];
+            System.arraycopy(current, 0, next, 0, current.length);
+        }
+        cell = new Cell();
+        next[foodId] = cell;
+        // 重新发布数组引用，读取方经由volatile读看到新单元
+        cells = next;
+        return cell;
+    }
+
+    private static final class Cell {
+        private final AtomicInteger available = new AtomicInteger(UNLIMITED);
+        private final AtomicInteger reserved = new AtomicInteger();
+        private final AtomicInteger pendingSold = new AtomicInteger();
+
+        /**
+         * 最近一次同步时的数据库库存，只在台账锁内读写
+         */
+        private int syncedStock = Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo1.catalog;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 滑动时间窗口上的Count-Min Sketch - 估计每道菜最近一段时间内被加入购物车的次数
+ * 窗口切分为环形的若干时间桶，每个桶是一个 depth x width 的计数矩阵，
+ * 估计值为各行在窗口内所有桶上计数之和的最小值（只会高估，不会低估）
+ * 内存固定为 buckets * depth * width 个long，写入只有原子自增和换桶时的一次CAS，不加锁也不等待
+ */
+public final class TrendingSketch {
+
+    /**
+     * 每行哈希的乘数，取自奇数常量，与id做乘法散列
+     */
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L
+    };
+
+    private final int depth;
+    private final int width;
+    private final int widthBits;
+    private final int buckets;
+    private final long bucketMillis;
+
+    /**
+     * 环形时间桶，尚未使用的位置为null
+     */
+    private final AtomicReferenceArray<Bucket> slots;
+
+    /**
+     * @param depth        哈希行数，决定误差概率（失败概率约为 e^-depth）
+     * @param width        每行计数器个数，向上取整为2的幂，误差上界约为 总次数 * e / width
+     * @param buckets      窗口内的时间桶数量
+     * @param bucketMillis 每个时间桶的时长
+     */
+    public TrendingSketch(int depth, int width, int buckets, long bucketMillis) {
+        if (depth < 1 || depth > SEEDS.length || width < 1 || buckets < 1 || bucketMillis < 1) {
+            throw new IllegalArgumentException("Count-Min Sketch参数无效");
+        }
+        this.depth = depth;
+        this.widthBits = 32 - Integer.numberOfLeadingZeros(Math.max(width - 1, 1));
+        this.width = 1 << widthBits;
+        this.buckets = buckets;
+        this.bucketMillis = bucketMillis;
+        this.slots = new AtomicReferenceArray<>(buckets);
+    }
+
+    /**
+     * 记录一次事件
+     */
+    public void add(int id, long nowMillis) {
+        AtomicLongArray counts = currentBucket(nowMillis).counts;
+        for (int row = 0; row < depth; row++) {
+            counts.incrementAndGet(row * width + column(id, row));
+        }
+    }
+
+    /**
+     * 估计窗口内的事件次数
+     */
+    public long estimate(int id, long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int col = column(id, row);
+            long sum = 0;
+            for (int b = 0; b < buckets; b++) {
+                Bucket bucket = slots.get(b);
+                // 只统计仍在窗口内的桶，过期但尚未被替换的桶直接跳过
+                if (bucket != null && bucket.epoch > epoch - buckets && bucket.epoch <= epoch) {
+                    sum += bucket.counts.get(row * width + col);
+                }
+            }
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    /**
+     * 窗口总时长
+     */
+    public long windowMillis() {
+        return buckets * bucketMillis;
+    }
+
+    public int memoryBytes() {
+        return buckets * depth * width * Long.BYTES;
+    }
+
+    /**
+     * 定位当前时间片对应的桶；位置上的桶属于已过期的时间片时，用CAS换入一个全新的零值桶，
+     * CAS失败说明其他线程已换好，重新读取即可。旧桶不会被清零复用，新时间片的计数不会被清掉，
+     * 写入方也不需要等待其他线程
+     */
+    private Bucket currentBucket(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        int slot = (int) (epoch % buckets);
+        while (true) {
+            Bucket seen = slots.get(slot);
+            if (seen != null && seen.epoch >= epoch) {
+                return seen;
+            }
+            Bucket fresh = new Bucket(epoch, depth * width);
+            if (slots.compareAndSet(slot, seen, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private int column(int id, int row) {
+        long h = (id + 1L) * SEEDS[row];
+        return (int) (h >>> (64 - widthBits));
+    }
+
+    /**
+     * 一个时间片的计数矩阵，第r行第c列位于 r * width + c
+     */
+    private static final class Bucket {
+        private final long epoch;
+        private final AtomicLongArray counts;
+
+        private Bucket(long epoch, int size) {
+            this.epoch = epoch;
+            this.counts = new AtomicLongArray(size);
+        }
+    }
+}
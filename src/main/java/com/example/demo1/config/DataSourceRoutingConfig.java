@@ -0,0 +1,83 @@
+package com.example.demo1.config;
+
+import com.example.demo1.datasource.ReadOnlyQuery;
+import com.example.demo1.datasource.ReadWriteRoutingDataSource;
+import com.example.demo1.datasource.ReplicaLagMonitor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * 读写分离数据源配置 - datasource.replica.enabled=true时启用
+ * 主库沿用spring.datasource.*，副本使用datasource.replica.*；
+ * MyBatis与JPA共用对外暴露的主数据源，由它按事务的只读属性或@ReadOnlyQuery选择实际连接
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public DataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().build();
+    }
+
+    @Bean
+    public DataSource replicaDataSource(@Value("${datasource.replica.url}") String url,
+                                        @Value("${datasource.replica.username:}") String username,
+                                        @Value("${datasource.replica.password:}") String password,
+                                        @Value("${datasource.replica.driver-class-name:}") String driverClassName) {
+        DataSourceBuilder<?> builder = DataSourceBuilder.create().url(url).username(username).password(password);
+        if (!driverClassName.isBlank()) {
+            builder.driverClassName(driverClassName);
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${datasource.replica.max-lag-ms:2000}") long maxLagMillis) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, maxLagMillis);
+        monitor.check();
+        return monitor;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                        @Qualifier("replicaDataSource") DataSource replica,
+                                                        ReplicaLagMonitor replicaLagMonitor) {
+        return new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor);
+    }
+
+    /**
+     * 延迟到第一条语句执行时才取物理连接，此时事务的只读标记已经生效
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Mapper接口方法上的@ReadOnlyQuery；静态方法，不让配置类本身提前初始化
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor readOnlyQueryAdvisor() {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, ReadOnlyQuery.class, true),
+                ReadWriteRoutingDataSource.readOnlyInterceptor());
+    }
+}
@@ -5,18 +5,36 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.Range;
 import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Redis模拟配置 - 当Redis禁用时使用内存模拟Redis功能
@@ -28,6 +46,21 @@ public class MockRedisConfig {
     // 使用ConcurrentHashMap模拟Redis存储
     private static final ConcurrentHashMap<String, String> mockRedisStore = new ConcurrentHashMap<>();
     private static final ConcurrentHashMap<String, Long> mockRedisExpiry = new ConcurrentHashMap<>();
+    // 哈希类型的键，与字符串键共用过期时间表
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<String, String>> mockRedisHashes = new ConcurrentHashMap<>();
+    // 每个键被修改的次数，供WATCH判断；只统计哈希命令、delete与expire
+    private static final ConcurrentHashMap<String, Long> mockRedisModifications = new ConcurrentHashMap<>();
+    // 修改与EXEC互斥，使EXEC的检查与执行相对其他命令是原子的
+    private static final Object mockRedisLock = new Object();
+
+    // 模拟发布订阅：订阅者与存储一样是静态的，同一JVM中的多个应用上下文共享，相当于连接同一个Redis
+    private static final ConcurrentHashMap<String, CopyOnWriteArrayList<MessageListener>> mockSubscribers = new ConcurrentHashMap<>();
+    // 与真实Redis一样异步投递，单线程保证同一频道内消息有序
+    private static final ExecutorService mockPubSubExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "mock-redis-pubsub");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Bean
     public StringRedisTemplate stringRedisTemplate() {
@@ -40,23 +73,249 @@ public class MockRedisConfig {
     public static class MockStringRedisTemplate extends StringRedisTemplate {
 
         private final MockValueOperations valueOps = new MockValueOperations();
+        private final MockHashOperations hashOps = new MockHashOperations();
+
+        /**
+         * 当前线程正在执行的管道，收集各命令的结果；管道内的命令与真实Redis一样返回null
+         */
+        private final ThreadLocal<List<Object>> pipeline = new ThreadLocal<>();
+
+        /**
+         * 当前线程MULTI之后排队的命令，EXEC时依次执行
+         */
+        private final ThreadLocal<List<Supplier<?>>> transaction = new ThreadLocal<>();
+
+        /**
+         * 当前线程WATCH的键及当时的修改次数
+         */
+        private final ThreadLocal<Map<String, Long>> watched = new ThreadLocal<>();
+
+        /**
+         * 模拟的网络往返次数：管道外每条命令一次，每个管道一次；
+         * 事务中排队的命令与Lettuce一样连续发出、不等待QUEUED应答，不计往返
+         */
+        private final AtomicLong roundTrips = new AtomicLong();
+
+        public long getRoundTrips() {
+            return roundTrips.get();
+        }
+
+        @Override
+        public void afterPropertiesSet() {
+            // 不连接真实Redis，跳过连接工厂校验
+        }
 
         @Override
         public ValueOperations<String, String> opsForValue() {
             return valueOps;
         }
 
+        @Override
+        @SuppressWarnings("unchecked")
+        public <HK, HV> HashOperations<String, HK, HV> opsForHash() {
+            return (HashOperations<String, HK, HV>) (HashOperations<String, ?, ?>) hashOps;
+        }
+
         @Override
         public Boolean hasKey(String key) {
             cleanExpiredKeys();
-            return mockRedisStore.containsKey(key);
+            return mockRedisStore.containsKey(key) || mockRedisHashes.containsKey(key);
         }
 
         @Override
         public Boolean delete(String key) {
-            mockRedisStore.remove(key);
-            mockRedisExpiry.remove(key);
-            return true;
+            return command(() -> {
+                synchronized (mockRedisLock) {
+                    boolean existed = mockRedisStore.remove(key) != null | mockRedisHashes.remove(key) != null;
+                    mockRedisExpiry.remove(key);
+                    touch(key);
+                    return existed;
+                }
+            });
+        }
+
+        @Override
+        public Boolean expire(String key, long timeout, TimeUnit unit) {
+            return command(() -> {
+                synchronized (mockRedisLock) {
+                    cleanExpiredKeys();
+                    if (!mockRedisStore.containsKey(key) && !mockRedisHashes.containsKey(key)) {
+                        return false;
+                    }
+                    mockRedisExpiry.put(key, System.currentTimeMillis() + unit.toMillis(timeout));
+                    touch(key);
+                    return true;
+                }
+            });
+        }
+
+        /**
+         * 模拟一个连接上的会话，结束时与归还连接一样丢弃WATCH和未执行的事务
+         */
+        @Override
+        public <T> T execute(SessionCallback<T> session) {
+            try {
+                return session.execute(this);
+            } finally {
+                watched.remove();
+                transaction.remove();
+            }
+        }
+
+        @Override
+        public void watch(String key) {
+            watch(List.of(key));
+        }
+
+        @Override
+        public void watch(Collection<String> keys) {
+            roundTrip();
+            Map<String, Long> versions = watched.get();
+            if (versions == null) {
+                versions = new LinkedHashMap<>();
+                watched.set(versions);
+            }
+            for (String key : keys) {
+                versions.putIfAbsent(key, mockRedisModifications.getOrDefault(key, 0L));
+            }
+        }
+
+        @Override
+        public void unwatch() {
+            roundTrip();
+            watched.remove();
+        }
+
+        @Override
+        public void multi() {
+            if (transaction.get() != null) {
+                throw new IllegalStateException("MULTI不能嵌套");
+            }
+            roundTrip();
+            transaction.set(new ArrayList<>());
+        }
+
+        @Override
+        public void discard() {
+            roundTrip();
+            transaction.remove();
+            watched.remove();
+        }
+
+        /**
+         * 执行排队的命令；WATCH的键在此期间被修改过时放弃整个事务，与Lettuce一样返回null。
+         * 管道中的EXEC在Spring Data Redis + Lettuce下无法把结果与排队的命令对应，这里直接拒绝
+         */
+        @Override
+        public List<Object> exec() {
+            List<Supplier<?>> queued = transaction.get();
+            if (queued == null) {
+                throw new IllegalStateException("EXEC之前没有MULTI");
+            }
+            Map<String, Long> versions = watched.get();
+            transaction.remove();
+            watched.remove();
+            if (pipeline.get() != null) {
+                throw new IllegalStateException("事务不能放在管道中执行");
+            }
+            roundTrips.incrementAndGet();
+            return runQueued(queued, versions);
+        }
+
+        private List<Object> runQueued(List<Supplier<?>> queued, Map<String, Long> versions) {
+            synchronized (mockRedisLock) {
+                if (versions != null) {
+                    for (Map.Entry<String, Long> entry : versions.entrySet()) {
+                        if (!Objects.equals(mockRedisModifications.getOrDefault(entry.getKey(), 0L), entry.getValue())) {
+                            return null;
+                        }
+                    }
+                }
+                List<Object> results = new ArrayList<>(queued.size());
+                for (Supplier<?> command : queued) {
+                    results.add(command.get());
+                }
+                return results;
+            }
+        }
+
+        /**
+         * 模拟管道：回调中的哈希、delete、expire命令立即执行，结果按顺序返回，回调内得到null
+         */
+        @Override
+        public List<Object> executePipelined(SessionCallback<?> session) {
+            if (pipeline.get() != null) {
+                throw new IllegalStateException("管道不能嵌套");
+            }
+            List<Object> results = new ArrayList<>();
+            pipeline.set(results);
+            roundTrips.incrementAndGet();
+            try {
+                session.execute(this);
+            } finally {
+                pipeline.remove();
+            }
+            return results;
+        }
+
+        /**
+         * 执行一条命令：事务中只排队并返回null；管道中立即执行，记录结果并返回null
+         */
+        private <T> T command(Supplier<T> command) {
+            List<Supplier<?>> queued = transaction.get();
+            if (queued != null) {
+                queued.add(command);
+                return null;
+            }
+            roundTrip();
+            T result = command.get();
+            List<Object> results = pipeline.get();
+            if (results == null) {
+                return result;
+            }
+            results.add(result);
+            return null;
+        }
+
+        /**
+         * 管道外的命令单独计一次往返，管道内的随管道一起计
+         */
+        private void roundTrip() {
+            if (pipeline.get() == null) {
+                roundTrips.incrementAndGet();
+            }
+        }
+
+        private static void touch(String key) {
+            mockRedisModifications.merge(key, 1L, Long::sum);
+        }
+
+        @Override
+        public Long convertAndSend(String channel, Object message) {
+            List<MessageListener> listeners = mockSubscribers.get(channel);
+            if (listeners == null || listeners.isEmpty()) {
+                return 0L;
+            }
+            DefaultMessage msg = new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+                    String.valueOf(message).getBytes(StandardCharsets.UTF_8));
+            for (MessageListener listener : listeners) {
+                mockPubSubExecutor.execute(() -> listener.onMessage(msg, null));
+            }
+            return (long) listeners.size();
+        }
+
+        /**
+         * 订阅频道，对应RedisMessageListenerContainer.addMessageListener
+         */
+        public void subscribe(String channel, MessageListener listener) {
+            mockSubscribers.computeIfAbsent(channel, k -> new CopyOnWriteArrayList<>()).add(listener);
+        }
+
+        public void unsubscribe(String channel, MessageListener listener) {
+            List<MessageListener> listeners = mockSubscribers.get(channel);
+            if (listeners != null) {
+                listeners.remove(listener);
+            }
         }
 
         private void cleanExpiredKeys() {
@@ -66,6 +325,7 @@ public class MockRedisConfig {
             for (Map.Entry<String, Long> entry : entries) {
                 if (entry.getValue() <= now) {
                     mockRedisStore.remove(entry.getKey());
+                    mockRedisHashes.remove(entry.getKey());
                     mockRedisExpiry.remove(entry.getKey());
                 }
             }
@@ -88,7 +348,6 @@ public class MockRedisConfig {
                 mockRedisExpiry.put(key, expiry);
             }
 
-            @Override
             public String get(String key) {
                 // 检查是否过期
                 Long expiry = mockRedisExpiry.get(key);
@@ -203,21 +462,19 @@ public class MockRedisConfig {
 
             @Override
             public Long increment(String key, long delta) {
-                String value = get(key);
-                long newValue;
-
-                if (value == null) {
-                    newValue = delta;
-                } else {
+                get(key);
+                // 与Redis的INCR一样原子执行，多个上下文并发递增时不会分配出重复值
+                String newValue = mockRedisStore.compute(key, (k, value) -> {
+                    if (value == null) {
+                        return String.valueOf(delta);
+                    }
                     try {
-                        newValue = Long.parseLong(value) + delta;
+                        return String.valueOf(Long.parseLong(value) + delta);
                     } catch (NumberFormatException e) {
                         throw new IllegalArgumentException("Value is not an integer");
                     }
-                }
-
-                set(key, String.valueOf(newValue));
-                return newValue;
+                });
+                return Long.parseLong(newValue);
             }
 
             @Override
@@ -319,5 +576,175 @@ public class MockRedisConfig {
                 return MockStringRedisTemplate.this;
             }
         }
+
+        /**
+         * 模拟HashOperations的实现，单条命令是原子的
+         */
+        private class MockHashOperations implements HashOperations<String, String, String> {
+
+            private Map<String, String> hash(String key) {
+                Long expiry = mockRedisExpiry.get(key);
+                if (expiry != null && expiry <= System.currentTimeMillis()) {
+                    mockRedisHashes.remove(key);
+                    mockRedisExpiry.remove(key);
+                }
+                return mockRedisHashes.getOrDefault(key, new ConcurrentHashMap<>());
+            }
+
+            /**
+             * 在键级别互斥地修改哈希，与Redis单条命令一样原子；字段删完后键随之消失
+             */
+            private <T> T update(String key, Function<Map<String, String>, T> change) {
+                synchronized (mockRedisLock) {
+                    hash(key);
+                    List<T> result = new ArrayList<>(1);
+                    mockRedisHashes.compute(key, (k, hash) -> {
+                        if (hash == null) {
+                            hash = new ConcurrentHashMap<>();
+                        }
+                        result.add(change.apply(hash));
+                        return hash.isEmpty() ? null : hash;
+                    });
+                    touch(key);
+                    return result.get(0);
+                }
+            }
+
+            @Override
+            public Long delete(String key, Object... fields) {
+                return command(() -> update(key, hash -> {
+                    long removed = 0;
+                    for (Object field : fields) {
+                        if (hash.remove(String.valueOf(field)) != null) {
+                            removed++;
+                        }
+                    }
+                    return removed;
+                }));
+            }
+
+            @Override
+            public Boolean hasKey(String key, Object field) {
+                return command(() -> hash(key).containsKey(String.valueOf(field)));
+            }
+
+            @Override
+            public String get(String key, Object field) {
+                return command(() -> hash(key).get(String.valueOf(field)));
+            }
+
+            @Override
+            public List<String> multiGet(String key, Collection<String> fields) {
+                return command(() -> {
+                    Map<String, String> hash = hash(key);
+                    List<String> values = new ArrayList<>(fields.size());
+                    for (String field : fields) {
+                        values.add(hash.get(field));
+                    }
+                    return values;
+                });
+            }
+
+            @Override
+            public Long increment(String key, String field, long delta) {
+                return command(() -> Long.parseLong(update(key, hash -> hash.compute(field, (f, current) -> {
+                    try {
+                        return String.valueOf((current == null ? 0 : Long.parseLong(current)) + delta);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Hash value is not an integer");
+                    }
+                }))));
+            }
+
+            @Override
+            public Double increment(String key, String field, double delta) {
+                return command(() -> Double.parseDouble(update(key, hash -> hash.compute(field, (f, current) -> {
+                    try {
+                        return String.valueOf((current == null ? 0 : Double.parseDouble(current)) + delta);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Hash value is not a number");
+                    }
+                }))));
+            }
+
+            @Override
+            public String randomKey(String key) {
+                throw new UnsupportedOperationException("Method not implemented");
+            }
+
+            @Override
+            public Map.Entry<String, String> randomEntry(String key) {
+                throw new UnsupportedOperationException("Method not implemented");
+            }
+
+            @Override
+            public List<String> randomKeys(String key, long count) {
+                throw new UnsupportedOperationException("Method not implemented");
+            }
+
+            @Override
+            public Map<String, String> randomEntries(String key, long count) {
+                throw new UnsupportedOperationException("Method not implemented");
+            }
+
+            @Override
+            public Set<String> keys(String key) {
+                return command(() -> new LinkedHashSet<>(hash(key).keySet()));
+            }
+
+            @Override
+            public Long lengthOfValue(String key, String field) {
+                return command(() -> {
+                    String value = hash(key).get(field);
+                    return value == null ? 0L : (long) value.length();
+                });
+            }
+
+            @Override
+            public Long size(String key) {
+                return command(() -> (long) hash(key).size());
+            }
+
+            @Override
+            public void putAll(String key, Map<? extends String, ? extends String> values) {
+                command(() -> update(key, hash -> {
+                    hash.putAll(values);
+                    return "OK";
+                }));
+            }
+
+            @Override
+            public void put(String key, String field, String value) {
+                command(() -> update(key, hash -> {
+                    hash.put(field, value);
+                    return true;
+                }));
+            }
+
+            @Override
+            public Boolean putIfAbsent(String key, String field, String value) {
+                return command(() -> update(key, hash -> hash.putIfAbsent(field, value) == null));
+            }
+
+            @Override
+            public List<String> values(String key) {
+                return command(() -> new ArrayList<>(hash(key).values()));
+            }
+
+            @Override
+            public Map<String, String> entries(String key) {
+                return command(() -> new LinkedHashMap<>(hash(key)));
+            }
+
+            @Override
+            public Cursor<Map.Entry<String, String>> scan(String key, ScanOptions options) {
+                throw new UnsupportedOperationException("Method not implemented");
+            }
+
+            @Override
+            public RedisOperations<String, ?> getOperations() {
+                return MockStringRedisTemplate.this;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package com.example.demo1.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 只读查询注解 - 标注在Mapper方法上，不在读写事务中调用时可以由只读副本应答
+ * 副本延迟超过阈值或不可用时仍然访问主库
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlyQuery {
+}
@@ -0,0 +1,94 @@
+package com.example.demo1.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离数据源 - 只读事务和@ReadOnlyQuery方法路由到副本，其余访问主库
+ * 路由在取得物理连接时决定，需要外包LazyConnectionDataSourceProxy，
+ * 使只读事务的标记在第一条语句执行前已经生效；副本延迟过大时只读请求也回到主库
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    /**
+     * 当前线程正在执行的@ReadOnlyQuery方法层数
+     */
+    private static final ThreadLocal<int[]> READ_ONLY_DEPTH = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+    private final LongAdder primaryConnections = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * 把方法调用标记为只读查询，供@ReadOnlyQuery的切面使用
+     */
+    public static MethodInterceptor readOnlyInterceptor() {
+        return invocation -> {
+            int[] depth = READ_ONLY_DEPTH.get();
+            if (depth == null) {
+                depth = new int[1];
+                READ_ONLY_DEPTH.set(depth);
+            }
+            depth[0]++;
+            try {
+                return invocation.proceed();
+            } finally {
+                if (--depth[0] == 0) {
+                    READ_ONLY_DEPTH.remove();
+                }
+            }
+        };
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!isReadOnly()) {
+            primaryConnections.increment();
+            return PRIMARY;
+        }
+        if (lagMonitor.isReplicaUsable()) {
+            replicaReads.increment();
+            return REPLICA;
+        }
+        fallbackReads.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * 只读事务，或不在读写事务中的@ReadOnlyQuery调用；
+     * 读写事务中的查询必须与写入使用同一个连接，即使方法标注了只读
+     */
+    private static boolean isReadOnly() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return READ_ONLY_DEPTH.get() != null;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("replicaReads", replicaReads.sum());
+        result.put("replicaFallbackReads", fallbackReads.sum());
+        result.put("primaryConnections", primaryConnections.sum());
+        result.putAll(lagMonitor.stats());
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo1.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 副本延迟监测 - 定时向主库的心跳表写入当前时间，再从副本读回，两者之差即复制延迟
+ * 副本读不到心跳、查询失败或延迟超过阈值时判定为不可用，只读请求回到主库
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)";
+
+    private final DataSource primary;
+    private final DataSource replica;
+
+    /**
+     * 允许的最大延迟（毫秒），小于0表示只检查副本是否可连接
+     */
+    private final long maxLagMillis;
+
+    private volatile boolean replicaUsable;
+    private volatile long lagMillis = -1;
+    private volatile boolean tableReady;
+    private volatile long checks;
+    private volatile long failures;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long lagMillis() {
+        return lagMillis;
+    }
+
+    /**
+     * 写一次心跳并测量副本延迟；首次检查前副本视为不可用
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.heartbeat-interval-ms:1000}")
+    public synchronized void check() {
+        checks++;
+        boolean usable;
+        try {
+            if (maxLagMillis < 0) {
+                try (Connection connection = replica.getConnection()) {
+                    usable = connection.isValid(1);
+                }
+            } else {
+                long now = System.currentTimeMillis();
+                beat(now);
+                long beatAt = readBeat();
+                lagMillis = beatAt < 0 ? -1 : Math.max(now - beatAt, 0);
+                usable = beatAt >= 0 && lagMillis <= maxLagMillis;
+            }
+        } catch (SQLException | RuntimeException e) {
+            failures++;
+            usable = false;
+            log.debug("副本延迟检查失败: {}", e.getMessage());
+        }
+        if (usable != replicaUsable) {
+            log.info("只读副本{}，当前延迟: {}ms", usable ? "恢复可用" : "不可用，只读查询改走主库", lagMillis);
+        }
+        replicaUsable = usable;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("replicaUsable", replicaUsable);
+        result.put("replicaLagMillis", lagMillis);
+        result.put("replicaMaxLagMillis", maxLagMillis);
+        result.put("replicaChecks", checks);
+        result.put("replicaCheckFailures", failures);
+        return result;
+    }
+
+    private void beat(long now) throws SQLException {
+        try (Connection connection = primary.getConnection()) {
+            if (!tableReady) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_TABLE);
+                }
+                tableReady = true;
+            }
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1")) {
+                update.setLong(1, now);
+                if (update.executeUpdate() == 0) {
+                    try (PreparedStatement insert = connection.prepareStatement(
+                            "INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)")) {
+                        insert.setLong(1, now);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+
+    /**
+     * @return 副本上的心跳时间，还没有复制过来时返回-1
+     */
+    private long readBeat() throws SQLException {
+        try (Connection connection = replica.getConnection();
+             PreparedStatement query = connection.prepareStatement("SELECT beat_at FROM replica_heartbeat WHERE id = 1");
+             ResultSet rs = query.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo1.dto;
+
+import com.example.demo1.Entity.food;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 菜单分页结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogPage {
+
+    /**
+     * 当前页菜品
+     */
+    private List<food> items;
+
+    /**
+     * 下一页游标，没有更多数据时为null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * 生成本页所用的目录版本
+     */
+    private long version;
+}
@@ -0,0 +1,126 @@
+package com.example.demo1.dto;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.catalog.AvailabilityIndex;
+import com.example.demo1.catalog.CatalogSort;
+import com.example.demo1.catalog.Money;
+import lombok.Data;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 菜单分页查询参数
+ */
+@Data
+public class CatalogQuery {
+
+    public static final int DEFAULT_SIZE = 24;
+    public static final int MAX_SIZE = 100;
+
+    /**
+     * 上一页返回的游标，为空表示第一页
+     */
+    private String cursor;
+
+    /**
+     * 每页条数
+     */
+    private Integer size;
+
+    /**
+     * 价格下限（含），单位为元
+     */
+    private Integer minPrice;
+
+    /**
+     * 价格上限（含），单位为元
+     */
+    private Integer maxPrice;
+
+    /**
+     * 等级下限（含）
+     */
+    private Integer minLevel;
+
+    /**
+     * 等级上限（含）
+     */
+    private Integer maxLevel;
+
+    /**
+     * 排序方式（id/price/price_desc/level_desc）
+     */
+    private String sort;
+
+    /**
+     * 只看当前时段可点的菜品
+     */
+    private Boolean availableNow;
+
+    /**
+     * 只看指定时刻（HH:mm）可点的菜品，优先于availableNow
+     */
+    private String at;
+
+    public int pageSize() {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    public CatalogSort sortOrder() {
+        return CatalogSort.parse(sort);
+    }
+
+    public boolean hasFilter() {
+        return minPrice != null || maxPrice != null || minLevel != null || maxLevel != null
+                || availabilitySlot() >= 0;
+    }
+
+    /**
+     * 按供应时段过滤的时段下标，不过滤时为-1；时刻格式无效时按不过滤处理
+     */
+    public int availabilitySlot() {
+        if (at != null && !at.isBlank()) {
+            try {
+                return AvailabilityIndex.slotOf(LocalTime.parse(at.trim()));
+            } catch (DateTimeParseException e) {
+                return -1;
+            }
+        }
+        return Boolean.TRUE.equals(availableNow) ? AvailabilityIndex.slotOf(LocalTime.now()) : -1;
+    }
+
+    /**
+     * 判断菜品是否满足价格和等级过滤条件
+     */
+    public boolean matches(food item) {
+        return (minPrice == null || item.getPrice() >= Money.ofYuan(minPrice))
+                && (maxPrice == null || item.getPrice() <= Money.ofYuan(maxPrice))
+                && (minLevel == null || item.getLevel() >= minLevel)
+                && (maxLevel == null || item.getLevel() <= maxLevel);
+    }
+
+    /**
+     * 把availableNow固定为当前时段的起始时刻，同一请求内的ETag、查询和缓存键使用同一时段
+     *
+     * @return 时段下标，不过滤时为-1
+     */
+    public int pinAvailabilitySlot() {
+        int slot = availabilitySlot();
+        if (slot >= 0) {
+            at = AvailabilityIndex.startOf(slot).toString();
+        }
+        return slot;
+    }
+
+    /**
+     * 归一化后的查询条件，用作渲染结果的缓存键
+     */
+    public String cacheKey() {
+        return sortOrder().getParam() + '|' + pageSize() + '|' + (cursor == null ? "" : cursor)
+                + '|' + minPrice + '|' + maxPrice + '|' + minLevel + '|' + maxLevel + '|' + availabilitySlot();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo1.dto;
+
+import com.example.demo1.Entity.food;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搭配推荐菜品及其与目标菜品同单的订单数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompanionItem {
+
+    private food food;
+
+    private int count;
+}
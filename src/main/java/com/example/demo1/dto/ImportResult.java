@@ -0,0 +1,53 @@
+package com.example.demo1.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 菜单批量导入结果
+ */
+@Data
+public class ImportResult {
+
+    /**
+     * 最多返回的错误明细条数
+     */
+    public static final int MAX_ERRORS = 20;
+
+    /**
+     * 读取的数据行数
+     */
+    private long rows;
+
+    private long inserted;
+
+    private long updated;
+
+    /**
+     * 校验失败被跳过的行数
+     */
+    private long skipped;
+
+    /**
+     * 前若干条错误明细（行号与原因）
+     */
+    private List<String> errors = new ArrayList<>();
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    /**
+     * 导入后的目录版本，没有写入任何数据时为导入前版本
+     */
+    private long version;
+
+    public void reject(long row, String reason) {
+        skipped++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("第" + row + "行: " + reason);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo1.dto;
+
+import com.example.demo1.Entity.food;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 热门菜品及其窗口内的加购次数（估计值）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingItem {
+
+    private food food;
+
+    private long count;
+}
@@ -0,0 +1,17 @@
+package com.example.demo1.repository;
+
+import com.example.demo1.Entity.FoodOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * 订单数据访问接口
+ */
+public interface FoodOrderRepository extends JpaRepository<FoodOrder, Long> {
+
+    /**
+     * 当前最大订单ID，没有订单时返回null
+     */
+    @Query("SELECT MAX(o.id) FROM FoodOrder o")
+    Long findMaxId();
+}
@@ -0,0 +1,25 @@
+package com.example.demo1.repository;
+
+import com.example.demo1.Entity.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.stream.Stream;
+
+/**
+ * 订单明细数据访问接口
+ */
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * 按订单顺序流式读取订单ID不超过maxOrderId的 (订单ID, 菜品ID)，只投影两列，不创建托管实体
+     * 必须在事务内使用并在用完后关闭
+     */
+    @Query("SELECT i.orderId, i.foodId FROM OrderItem i WHERE i.orderId <= :maxOrderId ORDER BY i.orderId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamOrderLines(@Param("maxOrderId") long maxOrderId);
+}
@@ -0,0 +1,31 @@
+package com.example.demo1.service;
+
+import com.example.demo1.dto.ImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 菜单批量导入服务 - 流式读取上传内容，按批次写入数据库，全部完成后只递增一次目录版本
+ * 带id的行按id更新或插入，不带id的行按所属餐厅内的菜名更新或插入
+ */
+public interface CatalogImportService {
+
+    /**
+     * 导入CSV，首行为表头，须包含name列，可选id、info、price、level、restaurant_id列（缺省为餐厅1）；price以元填写，可带两位小数
+     *
+     * @param in        CSV内容（UTF-8）
+     * @param batchSize 每批提交的行数，小于等于0时使用默认值
+     * @return 导入结果
+     */
+    ImportResult importCsv(InputStream in, int batchSize) throws IOException;
+
+    /**
+     * 导入JSON，内容为菜品对象数组，字段同food；price与CSV一致以元填写，也可改用priceFen以分填写，两者不能同时出现
+     *
+     * @param in        JSON内容
+     * @param batchSize 每批提交的行数，小于等于0时使用默认值
+     * @return 导入结果
+     */
+    ImportResult importJson(InputStream in, int batchSize) throws IOException;
+}
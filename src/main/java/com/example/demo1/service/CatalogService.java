@@ -0,0 +1,122 @@
+package com.example.demo1.service;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import com.example.demo1.dto.TrendingItem;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 菜单目录服务接口 - 在foodMapper之前提供按版本切换的内存快照
+ */
+public interface CatalogService {
+
+    /**
+     * 获取当前目录快照，版本变化时会重新加载
+     *
+     * @return 当前快照
+     */
+    CatalogSnapshot snapshot();
+
+    /**
+     * 获取全部菜品（按id升序）
+     *
+     * @return 只读菜品列表
+     */
+    List<food> findAll();
+
+    /**
+     * 按游标分页查询菜品，支持价格、等级过滤和排序
+     *
+     * @param query 分页查询参数
+     * @return 当前页及下一页游标
+     */
+    CatalogPage page(CatalogQuery query);
+
+    /**
+     * 在指定快照上分页查询，调用方先取快照再据其版本生成ETag时使用，保证内容与ETag一致
+     */
+    CatalogPage page(CatalogSnapshot snap, CatalogQuery query);
+
+    /**
+     * 根据ID查询菜品
+     *
+     * @param id 菜品ID
+     * @return 菜品，不存在时返回null
+     */
+    food findById(int id);
+
+    /**
+     * 根据名称查询菜品
+     *
+     * @param name 菜品名称
+     * @return 菜品，不存在时返回null
+     */
+    food findByName(String name);
+
+    /**
+     * 按名称和描述全文检索菜品
+     *
+     * @param query 查询文本
+     * @param limit 最多返回条数
+     * @return 按相关度降序排列的菜品
+     */
+    List<food> search(String query, int limit);
+
+    /**
+     * 菜名前缀联想，支持汉字、全拼和拼音首字母
+     *
+     * @param prefix 输入前缀
+     * @param limit  最多返回条数
+     * @return 按热度降序排列的菜品
+     */
+    List<food> suggest(String prefix, int limit);
+
+    /**
+     * 最近一段时间内加购次数最多的菜品
+     *
+     * @param limit 最多返回条数
+     * @return 按加购次数降序排列
+     */
+    List<TrendingItem> trending(int limit);
+
+    /**
+     * 当前目录版本号
+     */
+    long version();
+
+    /**
+     * 当前目录版本生效的时间（毫秒），用作Last-Modified
+     */
+    long lastModified();
+
+    /**
+     * 某个餐厅的菜单版本：影响该餐厅或影响所有餐厅的最近一次变更的目录版本，
+     * 其他餐厅的变更不会改变它
+     */
+    long restaurantVersion(int restaurantId);
+
+    /**
+     * 标记目录已变更，下一次读取时重新加载快照；影响所有餐厅
+     *
+     * @return 新的目录版本号
+     */
+    long markChanged();
+
+    /**
+     * 标记目录已变更，只有受影响餐厅的分区快照需要重新加载
+     *
+     * @param restaurantIds 受影响的餐厅，为空时表示影响所有餐厅
+     * @return 新的目录版本号
+     */
+    long markChanged(Collection<Integer> restaurantIds);
+
+    /**
+     * 缓存统计信息
+     */
+    Map<String, Object> stats();
+}
@@ -0,0 +1,42 @@
+package com.example.demo1.service;
+
+import java.nio.file.Path;
+
+/**
+ * 菜品图片变体服务 - 按宽度生成缩略图并缓存到磁盘，
+ * 变体文件名带源图摘要，内容不变时URL不变，可长期缓存
+ */
+public interface ImageVariantService {
+
+    /**
+     * 获取菜品图片指定宽度变体的URL
+     *
+     * @param foodId 菜品ID
+     * @param width  目标宽度，必须是支持的宽度之一
+     * @param format 输出格式：jpg或webp
+     * @return 变体URL；源图不存在或参数不支持时返回原图路径
+     */
+    String url(int foodId, int width, String format);
+
+    /**
+     * 获取菜品图片的srcset属性值，如 "/img/v/1-280-xxxx.jpg 280w, /img/v/1-560-xxxx.jpg 560w"
+     *
+     * @param foodId 菜品ID
+     * @param format 输出格式
+     * @return srcset属性值；源图不存在或格式不支持时返回null
+     */
+    String srcset(int foodId, String format);
+
+    /**
+     * 当前运行环境是否能输出WebP
+     */
+    boolean isWebpSupported();
+
+    /**
+     * 按变体文件名定位磁盘文件，首次访问时生成
+     *
+     * @param name 变体文件名，格式为 {id}-{width}-{hash}.{format}
+     * @return 变体文件；文件名无效或摘要已过期时返回null
+     */
+    Path resolve(String name);
+}
@@ -0,0 +1,56 @@
+package com.example.demo1.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 菜品库存服务 - 加入购物车时预占库存，预占超时自动归还，结算时在数据库中按条件扣减
+ * 库存为空(null)的菜品不限量
+ */
+public interface InventoryService {
+
+    /**
+     * 为购物车追加预占，并刷新该购物车预占的过期时间
+     *
+     * @param cartId   购物车标识
+     * @param foodId   菜品ID
+     * @param quantity 追加数量
+     * @return 库存不足时返回false，预占不变
+     */
+    boolean reserve(String cartId, int foodId, int quantity);
+
+    /**
+     * 归还购物车的部分预占，数量超过已预占时全部归还
+     */
+    void release(String cartId, int foodId, int quantity);
+
+    /**
+     * 结算：确保每个菜品的预占覆盖购买数量（已过期的重新预占），再在一个事务中按条件扣减数据库库存，全部成功后转为售出
+     *
+     * @param cartId     购物车标识
+     * @param quantities 菜品ID -> 购买数量
+     * @return 库存不足的菜品ID，为空表示结算成功；不足时不扣减，预占保留
+     */
+    List<Integer> confirm(String cartId, Map<Integer, Integer> quantities);
+
+    /**
+     * 撤销已成功的结算：把扣减的库存加回数据库，并重新为购物车预占，用于订单写入失败时放回购物车；
+     * 加回失败时只记录日志，不抛出异常
+     *
+     * @param cartId     购物车标识
+     * @param quantities 菜品ID -> 购买数量，与confirm的参数相同
+     */
+    void cancel(String cartId, Map<Integer, Integer> quantities);
+
+    /**
+     * 当前可售数量，不限量时返回-1
+     */
+    int available(int foodId);
+
+    /**
+     * 从数据库重新同步本节点的库存台账，使其他节点的售出反映到本节点的可售数量
+     */
+    void sync();
+
+    Map<String, Object> stats();
+}
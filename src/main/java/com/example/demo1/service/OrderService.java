@@ -0,0 +1,21 @@
+package com.example.demo1.service;
+
+import com.example.demo1.Entity.CartItem;
+import com.example.demo1.Entity.FoodOrder;
+
+import java.util.List;
+
+/**
+ * 订单服务接口
+ */
+public interface OrderService {
+
+    /**
+     * 保存结算成功的购物车为订单
+     *
+     * @param items 已按最新价格校验过的购物车条目
+     * @param total 订单总金额，单位为分
+     * @return 已保存的订单
+     */
+    FoodOrder placeOrder(List<CartItem> items, long total);
+}
@@ -0,0 +1,38 @@
+package com.example.demo1.service;
+
+import com.example.demo1.dto.CompanionItem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 搭配推荐服务 - 基于已完成订单的菜品共现次数
+ */
+public interface RecommendationService {
+
+    /**
+     * 计入一个已完成订单
+     *
+     * @param orderId 订单ID
+     * @param foodIds 订单中的菜品ID
+     */
+    void recordOrder(long orderId, int[] foodIds);
+
+    /**
+     * 经常与指定菜品一起下单的菜品
+     *
+     * @param foodId 菜品ID
+     * @param limit  最多返回条数
+     * @return 按同单次数降序排列，只包含仍在售的菜品
+     */
+    List<CompanionItem> companions(int foodId, int limit);
+
+    /**
+     * 从订单历史流式重建共现矩阵，完成后整体替换
+     *
+     * @return 计入的订单数
+     */
+    long rebuild();
+
+    Map<String, Object> stats();
+}
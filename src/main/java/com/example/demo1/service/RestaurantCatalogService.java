@@ -0,0 +1,52 @@
+package com.example.demo1.service;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+
+import java.util.Map;
+
+/**
+ * 按餐厅分区的菜单目录服务接口 - 每个餐厅一份独立的内存快照，按需加载、单独淘汰
+ */
+public interface RestaurantCatalogService {
+
+    /**
+     * 获取某个餐厅的菜单快照，该餐厅的菜单版本变化后重新加载
+     *
+     * @param restaurantId 餐厅ID
+     * @return 该餐厅的快照，餐厅没有菜品时为空快照
+     */
+    CatalogSnapshot snapshot(int restaurantId);
+
+    /**
+     * 按游标分页查询某个餐厅的菜品，参数与全店菜单一致
+     *
+     * @param restaurantId 餐厅ID
+     * @param query        分页查询参数
+     * @return 当前页及下一页游标
+     */
+    CatalogPage page(int restaurantId, CatalogQuery query);
+
+    /**
+     * 在某个餐厅的菜单中按ID查询菜品
+     *
+     * @param restaurantId 餐厅ID
+     * @param id           菜品ID
+     * @return 菜品，不存在或不属于该餐厅时返回null
+     */
+    food findById(int restaurantId, int id);
+
+    /**
+     * 丢弃某个餐厅的快照与菜单片段，下次访问时重新加载
+     *
+     * @param restaurantId 餐厅ID
+     */
+    void evict(int restaurantId);
+
+    /**
+     * 分区统计信息
+     */
+    Map<String, Object> stats();
+}
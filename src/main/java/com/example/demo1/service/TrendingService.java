@@ -0,0 +1,38 @@
+package com.example.demo1.service;
+
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import com.example.demo1.dto.TrendingItem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 热门菜品服务 - 按最近一段时间内的加购次数排名，只在内存中统计
+ */
+public interface TrendingService {
+
+    /**
+     * 记录一次加入购物车
+     *
+     * @param foodId 菜品ID
+     */
+    void recordAdd(int foodId);
+
+    /**
+     * 当前最热门的菜品
+     *
+     * @param snap  目录快照，只返回快照中存在的菜品
+     * @param limit 最多返回条数
+     * @return 按加购次数降序排列
+     */
+    List<TrendingItem> top(CatalogSnapshot snap, int limit);
+
+    /**
+     * 按热度排序分页，游标为上一页最后一行的 "热度:id"；过滤条件与其他排序方式一致
+     */
+    CatalogPage page(CatalogSnapshot snap, CatalogQuery query);
+
+    Map<String, Object> stats();
+}
@@ -0,0 +1,310 @@
+package com.example.demo1.service.impl;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.Mapper.foodMapper;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.catalog.CsvRecordReader;
+import com.example.demo1.catalog.Money;
+import com.example.demo1.dto.ImportResult;
+import com.example.demo1.service.CatalogImportService;
+import com.example.demo1.service.CatalogService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 菜单批量导入服务实现
+ * 使用MyBatis BATCH执行器，JDBC驱动按批发送语句；每批提交一次事务，
+ * 已存在的id和 (餐厅, 菜名) 取自当前目录快照，并随导入过程更新
+ */
+@Service
+public class CatalogImportServiceImpl implements CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportServiceImpl.class);
+
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.import.batch-size:500}")
+    private int defaultBatchSize;
+
+    @Override
+    public ImportResult importCsv(InputStream in, int batchSize) throws IOException {
+        ImportResult result = new ImportResult();
+        CsvRecordReader reader = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+
+        List<String> header = reader.next();
+        if (header == null || header.isEmpty()) {
+            throw new IllegalArgumentException("CSV缺少表头");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // 去掉Excel导出时带的BOM
+            columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(), i);
+        }
+        if (!columns.containsKey("name")) {
+            throw new IllegalArgumentException("CSV表头缺少name列");
+        }
+
+        return run(result, batchSize, () -> {
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (record.isEmpty()) {
+                    continue;
+                }
+                long row = result.getRows() + 1;
+                result.setRows(row);
+                try {
+                    food item = new food();
+                    item.setId(intColumn(record, columns, "id"));
+                    item.setName(column(record, columns, "name"));
+                    item.setInfo(column(record, columns, "info"));
+                    item.setPrice(moneyColumn(record, columns, "price"));
+                    item.setLevel(intColumn(record, columns, "level"));
+                    String restaurantId = column(record, columns, "restaurant_id");
+                    if (restaurantId != null) {
+                        item.setRestaurantId(Integer.parseInt(restaurantId));
+                    }
+                    return item;
+                } catch (NumberFormatException e) {
+                    result.reject(row, "数字格式错误 " + e.getMessage());
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public ImportResult importJson(InputStream in, int batchSize) throws IOException {
+        ImportResult result = new ImportResult();
+        // MappingIterator逐个对象读取，不会把整个数组读入内存
+        try (MappingIterator<ObjectNode> items = objectMapper.readerFor(ObjectNode.class).readValues(in)) {
+            return run(result, batchSize, () -> {
+                while (items.hasNextValue()) {
+                    long row = result.getRows() + 1;
+                    result.setRows(row);
+                    ObjectNode node = items.nextValue();
+                    String error = normalizePrice(node);
+                    if (error != null) {
+                        result.reject(row, error);
+                        continue;
+                    }
+                    try {
+                        return objectMapper.treeToValue(node, food.class);
+                    } catch (JsonProcessingException e) {
+                        // 字段类型不对只拒绝这一行，和CSV的数字格式错误一样处理
+                        result.reject(row, "字段格式错误 " + e.getOriginalMessage());
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    private ImportResult run(ImportResult result, int batchSize, RowSource source) throws IOException {
+        long start = System.nanoTime();
+        int size = batchSize <= 0 ? defaultBatchSize : Math.min(batchSize, MAX_BATCH_SIZE);
+
+        CatalogSnapshot snap = catalogService.snapshot();
+        Map<Integer, Integer> knownIds = new HashMap<>();
+        Set<DishKey> knownNames = new HashSet<>();
+        for (food item : snap.getFoods()) {
+            knownIds.put(item.getId(), item.getRestaurantId());
+            knownNames.add(DishKey.of(item));
+        }
+        // 只有写入过的餐厅需要重新加载分区快照
+        Set<Integer> touched = new HashSet<>();
+
+        long committed = 0;
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            foodMapper mapper = session.getMapper(foodMapper.class);
+            int pending = 0;
+            try {
+                food item;
+                while ((item = source.next()) != null) {
+                    String error = validate(item);
+                    if (error != null) {
+                        result.reject(result.getRows(), error);
+                        continue;
+                    }
+                    touched.add(write(mapper, item, knownIds, knownNames, result));
+                    if (++pending >= size) {
+                        session.commit();
+                        committed += pending;
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    session.commit();
+                    committed += pending;
+                }
+            } catch (RuntimeException | IOException e) {
+                session.rollback();
+                log.error("菜单导入在第{}行失败，已提交{}行: {}", result.getRows(), committed, e.getMessage());
+                throw e;
+            } finally {
+                // 失败时已提交的批次也需要让目录重新加载
+                result.setVersion(committed > 0 ? catalogService.markChanged(touched) : catalogService.version());
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setRowsPerSecond(elapsedNanos == 0 ? 0 : result.getRows() * 1_000_000_000.0 / elapsedNanos);
+        log.info("菜单导入完成 - 行数: {}, 新增: {}, 更新: {}, 跳过: {}, 耗时: {}ms, {}行/秒",
+                result.getRows(), result.getInserted(), result.getUpdated(), result.getSkipped(),
+                result.getElapsedMillis(), (long) result.getRowsPerSecond());
+        return result;
+    }
+
+    /**
+     * 写入一行，返回该菜品所属的餐厅；按id更新不改变所属餐厅
+     */
+    private int write(foodMapper mapper, food item, Map<Integer, Integer> knownIds, Set<DishKey> knownNames,
+                      ImportResult result) {
+        boolean exists;
+        int restaurantId = item.getRestaurantId();
+        if (item.getId() > 0) {
+            Integer owner = knownIds.putIfAbsent(item.getId(), restaurantId);
+            exists = owner != null;
+            if (exists) {
+                restaurantId = owner;
+                mapper.updateById(item);
+            } else {
+                mapper.insertWithId(item);
+            }
+        } else {
+            exists = knownNames.contains(DishKey.of(item));
+            if (exists) {
+                mapper.updateByName(item);
+            } else {
+                mapper.insert(item);
+            }
+        }
+        knownNames.add(new DishKey(restaurantId, item.getName()));
+        if (exists) {
+            result.setUpdated(result.getUpdated() + 1);
+        } else {
+            result.setInserted(result.getInserted() + 1);
+        }
+        return restaurantId;
+    }
+
+    private static String validate(food item) {
+        if (item.getName() == null || item.getName().isBlank()) {
+            return "菜名不能为空";
+        }
+        if (item.getRestaurantId() <= 0) {
+            return "餐厅ID必须为正数";
+        }
+        if (item.getPrice() < 0) {
+            return "价格不能为负数";
+        }
+        if (item.getPrice() > Money.MAX_PRICE) {
+            return "价格超出范围";
+        }
+        if (item.getLevel() < 0 || item.getLevel() > 5) {
+            return "等级必须在0到5之间";
+        }
+        return null;
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static int intColumn(List<String> record, Map<String, Integer> columns, String name) {
+        String value = column(record, columns, name);
+        return value == null ? 0 : Integer.parseInt(value);
+    }
+
+    /**
+     * CSV中的价格以元填写，可带两位小数
+     */
+    private static long moneyColumn(List<String> record, Map<String, Integer> columns, String name) {
+        String value = column(record, columns, name);
+        return value == null ? 0 : Money.parse(value);
+    }
+
+    /**
+     * JSON中price与CSV一致以元填写，priceFen以分填写；两者同时出现时无法判断本意，拒绝该行。
+     * 换算后统一写回price（分）再绑定为food
+     */
+    private static String normalizePrice(ObjectNode node) {
+        JsonNode yuan = node.remove("price");
+        JsonNode fen = node.remove("priceFen");
+        boolean hasYuan = yuan != null && !yuan.isNull();
+        boolean hasFen = fen != null && !fen.isNull();
+        if (hasYuan && hasFen) {
+            return "price与priceFen只能填写一个";
+        }
+        if (hasFen) {
+            if (!fen.isIntegralNumber() || !fen.canConvertToLong()) {
+                return "priceFen必须为整数";
+            }
+            node.put("price", fen.longValue());
+        } else if (hasYuan) {
+            if (!yuan.isNumber() && !yuan.isTextual()) {
+                return "price格式错误";
+            }
+            try {
+                node.put("price", Money.parse(yuan.asText()));
+            } catch (NumberFormatException e) {
+                return "数字格式错误 " + e.getMessage();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 菜名只在餐厅内唯一，按 (餐厅, 菜名) 判断是否已存在
+     */
+    private record DishKey(int restaurantId, String name) {
+        static DishKey of(food item) {
+            return new DishKey(item.getRestaurantId(), item.getName());
+        }
+    }
+
+    /**
+     * 逐行读取数据源，读完返回null
+     */
+    @FunctionalInterface
+    private interface RowSource {
+        food next() throws IOException;
+    }
+}
@@ -0,0 +1,448 @@
+package com.example.demo1.service.impl;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.Mapper.foodMapper;
+import com.example.demo1.catalog.CatalogChangeBus;
+import com.example.demo1.catalog.CatalogChangedEvent;
+import com.example.demo1.catalog.CatalogSort;
+import com.example.demo1.catalog.AvailabilityIndex;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.catalog.CatalogSnapshotFile;
+import com.example.demo1.catalog.CatalogStats;
+import com.example.demo1.catalog.DishSearchIndex;
+import com.example.demo1.catalog.DishSuggestTrie;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import com.example.demo1.dto.TrendingItem;
+import com.example.demo1.service.CatalogService;
+import com.example.demo1.service.TrendingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 菜单目录服务实现
+ * 读取路径只做一次volatile读取；版本变化后由单个线程重建快照并原子替换，
+ * 重建期间其他线程继续使用旧快照；版本号经CatalogChangeBus在节点间同步
+ */
+@Service
+public class CatalogServiceImpl implements CatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogServiceImpl.class);
+
+    /**
+     * 联想前缀树每个前缀保留的候选数量
+     */
+    public static final int SUGGEST_TOP_N = 10;
+
+    @Autowired
+    private foodMapper foodMp;
+
+    @Autowired
+    private CatalogChangeBus changeBus;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>(CatalogSnapshot.empty());
+
+    /**
+     * 期望的目录版本，快照版本落后于它时需要重新加载
+     */
+    private final AtomicLong targetVersion = new AtomicLong(1);
+
+    /**
+     * 最近一次影响所有餐厅的变更版本；启动时采用的全局版本也计入，此前的变更范围无从得知
+     */
+    private final AtomicLong allRestaurantsVersion = new AtomicLong(1);
+
+    /**
+     * 餐厅ID -> 最近一次影响该餐厅的变更版本，餐厅分区按它判断是否需要重新加载
+     */
+    private final ConcurrentHashMap<Integer, Long> restaurantVersions = new ConcurrentHashMap<>();
+
+    /**
+     * 目标版本生效的时间
+     */
+    private volatile long versionTimestamp = System.currentTimeMillis();
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private final CatalogStats stats = new CatalogStats();
+
+    /**
+     * 全文检索索引，随快照切换增量更新
+     */
+    private final DishSearchIndex searchIndex = new DishSearchIndex();
+
+    /**
+     * 菜名联想前缀树，随快照整体重建
+     */
+    private volatile DishSuggestTrie suggestTrie = DishSuggestTrie.EMPTY;
+
+    /**
+     * 本地快照文件路径，为空时不读写快照文件
+     */
+    @Value("${catalog.snapshot-file:}")
+    private String snapshotFile;
+
+    /**
+     * 快照的存储方式：heap为每道菜一个food对象；columnar为列式存储，适合几十万道菜的多餐厅菜单
+     */
+    @Value("${catalog.storage:heap}")
+    private String storage;
+
+    /**
+     * 当前快照来自快照文件且尚未与数据库核对；期间直接使用文件中的快照，不触发重新加载
+     */
+    private volatile boolean reconciling;
+
+    private final AtomicLong snapshotFileWrites = new AtomicLong();
+    private final AtomicLong snapshotFileFailures = new AtomicLong();
+    private volatile long snapshotFileLoadMillis = -1;
+
+    /**
+     * 启动时采用集群当前的全局版本，使各节点的ETag一致；
+     * 随后从本地快照文件预热，第一个请求不必等待数据库查询
+     */
+    @PostConstruct
+    public void syncVersion() {
+        long clusterVersion = changeBus.currentVersion();
+        advanceTo(clusterVersion);
+        warmStart(clusterVersion);
+    }
+
+    @Override
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot snap = current.get();
+        if (snap.getVersion() == targetVersion.get() && !reconciling) {
+            stats.recordHit();
+            return snap;
+        }
+        if (reconciling && snap.isLoaded()) {
+            // 后台核对完成前先用快照文件应答
+            stats.recordHit();
+            return snap;
+        }
+        stats.recordMiss();
+        return reload(snap);
+    }
+
+    @Override
+    public List<food> findAll() {
+        return snapshot().getFoods();
+    }
+
+    @Override
+    public CatalogPage page(CatalogQuery query) {
+        return page(snapshot(), query);
+    }
+
+    @Override
+    public CatalogPage page(CatalogSnapshot snap, CatalogQuery query) {
+        if (query.sortOrder() == CatalogSort.HOT) {
+            return trendingService.page(snap, query);
+        }
+        return snap.page(query);
+    }
+
+    @Override
+    public food findById(int id) {
+        return snapshot().findById(id);
+    }
+
+    @Override
+    public food findByName(String name) {
+        return snapshot().findByName(name);
+    }
+
+    @Override
+    public List<food> search(String query, int limit) {
+        CatalogSnapshot snap = snapshot();
+        int[] ids = searchIndex.search(query, limit);
+        List<food> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            // 索引与快照分别切换，短暂不一致时忽略快照中已不存在的菜品
+            food item = snap.findById(id);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<food> suggest(String prefix, int limit) {
+        CatalogSnapshot snap = snapshot();
+        int[] ids = suggestTrie.suggest(prefix, limit);
+        List<food> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            food item = snap.findById(id);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<TrendingItem> trending(int limit) {
+        return trendingService.top(snapshot(), limit);
+    }
+
+    /**
+     * 核对期间返回快照文件的版本，核对后的内容若有变化，ETag随之变化
+     */
+    @Override
+    public long version() {
+        return reconciling ? current.get().getVersion() : targetVersion.get();
+    }
+
+    @Override
+    public long lastModified() {
+        return versionTimestamp;
+    }
+
+    @Override
+    public long restaurantVersion(int restaurantId) {
+        return Math.max(allRestaurantsVersion.get(), restaurantVersions.getOrDefault(restaurantId, 0L));
+    }
+
+    @Override
+    public long markChanged() {
+        return markChanged(List.of());
+    }
+
+    @Override
+    public long markChanged(Collection<Integer> restaurantIds) {
+        long version = changeBus.publish(targetVersion.get() + 1, restaurantIds);
+        if (version > 0) {
+            advanceTo(version, restaurantIds);
+        } else {
+            // 广播失败时只在本节点生效
+            versionTimestamp = System.currentTimeMillis();
+            version = targetVersion.incrementAndGet();
+            recordChange(version, restaurantIds);
+        }
+        log.info("菜单目录已变更，新版本: {}, 餐厅: {}", version, restaurantIds.isEmpty() ? "全部" : restaurantIds);
+        return version;
+    }
+
+    /**
+     * 其他节点变更了目录：推进本地版本并立即重建快照，不让下一个请求承担加载耗时
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (advanceTo(event.version(), event.restaurantIds())) {
+            log.info("收到节点 {} 的菜单目录变更，新版本: {}", event.origin(), event.version());
+            snapshot();
+            changeBus.recordApplied(event.publishedAt());
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        CatalogSnapshot snap = current.get();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", snap.getVersion());
+        result.put("targetVersion", targetVersion.get());
+        result.put("restaurantVersions", restaurantVersions.size());
+        result.put("size", snap.size());
+        result.put("searchIndexSize", searchIndex.size());
+        result.put("availabilityIndexBytes", snap.getAvailability().memoryBytes());
+        result.put("availableNow", snap.getAvailability().count(AvailabilityIndex.slotOf(LocalTime.now())));
+        result.put("loadedAt", snap.getLoadedAt());
+        result.put("storage", snap.getColumns() == null ? "heap" : "columnar");
+        if (snap.getColumns() != null) {
+            result.put("columnarHeapBytes", snap.getColumns().heapBytes());
+            result.put("columnarOffHeapBytes", snap.getColumns().offHeapBytes());
+        }
+        result.putAll(stats.toMap());
+        result.put("reconciling", reconciling);
+        result.put("snapshotFileLoadMillis", snapshotFileLoadMillis);
+        result.put("snapshotFileWrites", snapshotFileWrites.get());
+        result.put("snapshotFileFailures", snapshotFileFailures.get());
+        result.putAll(changeBus.stats());
+        result.putAll(trendingService.stats());
+        return result;
+    }
+
+    private boolean advanceTo(long version) {
+        return advanceTo(version, List.of());
+    }
+
+    /**
+     * 目标版本只增不减，返回是否确实前进了；受影响餐厅的版本总是记录，乱序到达的旧消息也不会漏掉餐厅
+     */
+    private boolean advanceTo(long version, Collection<Integer> restaurantIds) {
+        recordChange(version, restaurantIds);
+        long previous = targetVersion.getAndAccumulate(version, Math::max);
+        if (version > previous) {
+            versionTimestamp = System.currentTimeMillis();
+            return true;
+        }
+        return false;
+    }
+
+    private void recordChange(long version, Collection<Integer> restaurantIds) {
+        if (restaurantIds.isEmpty()) {
+            allRestaurantsVersion.accumulateAndGet(version, Math::max);
+            return;
+        }
+        for (Integer restaurantId : restaurantIds) {
+            restaurantVersions.merge(restaurantId, version, Math::max);
+        }
+    }
+
+    private CatalogSnapshot reload(CatalogSnapshot stale) {
+        // 已有可用快照时不排队等待，由正在刷新的线程负责替换
+        if (stale.isLoaded()) {
+            if (!refreshLock.tryLock()) {
+                return stale;
+            }
+        } else {
+            refreshLock.lock();
+        }
+
+        try {
+            long target = targetVersion.get();
+            CatalogSnapshot snap = current.get();
+            if (snap.getVersion() == target) {
+                return snap;
+            }
+
+            long start = System.nanoTime();
+            CatalogSnapshot fresh = CatalogSnapshot.of(target, foodMp.findAll(), isColumnar());
+            install(snap, fresh);
+            long elapsed = System.nanoTime() - start;
+            stats.recordRefresh(elapsed);
+            log.debug("菜单目录快照已刷新 - 版本: {}, 菜品数: {}, 耗时: {}ms", target, fresh.size(), elapsed / 1_000_000);
+            saveSnapshotFile(fresh);
+            return fresh;
+        } catch (RuntimeException e) {
+            stats.recordRefreshFailure();
+            CatalogSnapshot snap = current.get();
+            if (snap.isLoaded()) {
+                log.warn("菜单目录刷新失败，继续使用版本 {} 的快照: {}", snap.getVersion(), e.getMessage());
+                return snap;
+            }
+            throw e;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private boolean isColumnar() {
+        return "columnar".equalsIgnoreCase(storage);
+    }
+
+    private void install(CatalogSnapshot previous, CatalogSnapshot fresh) {
+        searchIndex.sync(previous, fresh);
+        // 暂以评级作为热度
+        suggestTrie = DishSuggestTrie.build(fresh.getFoods(), food::getLevel, SUGGEST_TOP_N);
+        current.set(fresh);
+    }
+
+    /**
+     * 读取本地快照文件作为初始快照。文件版本与集群全局版本一致时直接可用；
+     * 全局版本未知（为0）或不一致时先用文件应答，由后台线程从数据库加载后核对替换
+     */
+    private void warmStart(long clusterVersion) {
+        if (snapshotFile == null || snapshotFile.isBlank()) {
+            return;
+        }
+        long start = System.nanoTime();
+        CatalogSnapshotFile.Contents contents;
+        try {
+            contents = CatalogSnapshotFile.read(Paths.get(snapshotFile));
+        } catch (IOException | RuntimeException e) {
+            log.warn("读取菜单目录快照文件失败，启动后从数据库加载: {}", e.getMessage());
+            return;
+        }
+        if (contents == null || contents.version() <= 0) {
+            return;
+        }
+
+        CatalogSnapshot fromFile = CatalogSnapshot.of(contents.version(), contents.foods(), isColumnar());
+        boolean trusted = clusterVersion > 0 && contents.version() == clusterVersion;
+        reconciling = !trusted;
+        install(current.get(), fromFile);
+        snapshotFileLoadMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("已从快照文件加载菜单目录 - 版本: {}, 菜品数: {}, 耗时: {}ms, {}", contents.version(),
+                fromFile.size(), snapshotFileLoadMillis, trusted ? "与全局版本一致" : "后台与数据库核对");
+        if (!trusted) {
+            Thread thread = new Thread(() -> reconcile(fromFile), "catalog-reconcile");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * 从数据库加载并替换快照文件中的内容；内容有变化而版本号相同时在本地递增版本，使ETag失效
+     */
+    private void reconcile(CatalogSnapshot fromFile) {
+        refreshLock.lock();
+        try {
+            long start = System.nanoTime();
+            long target = targetVersion.get();
+            List<food> rows = foodMp.findAll();
+            CatalogSnapshot probe = CatalogSnapshot.of(fromFile.getVersion(), rows);
+            boolean changed = !probe.getFoods().equals(fromFile.getFoods());
+            if (changed && target == fromFile.getVersion()) {
+                versionTimestamp = System.currentTimeMillis();
+                target = targetVersion.incrementAndGet();
+                recordChange(target, List.of());
+            }
+            CatalogSnapshot fresh = CatalogSnapshot.of(target, rows, isColumnar());
+            install(current.get(), fresh);
+            reconciling = false;
+            long elapsed = System.nanoTime() - start;
+            stats.recordRefresh(elapsed);
+            log.info("菜单目录已与数据库核对 - 版本: {}, 内容{}, 耗时: {}ms", target, changed ? "有变化" : "一致",
+                    elapsed / 1_000_000);
+            if (changed || target != fromFile.getVersion()) {
+                saveSnapshotFile(fresh);
+            }
+        } catch (RuntimeException e) {
+            // 继续使用文件中的快照；版本号恰好相同时本地递增，下次读取按正常流程重新加载
+            stats.recordRefreshFailure();
+            if (current.get().getVersion() == targetVersion.get()) {
+                advanceTo(targetVersion.get() + 1);
+            }
+            reconciling = false;
+            log.warn("菜单目录核对失败，稍后重新加载: {}", e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void saveSnapshotFile(CatalogSnapshot snap) {
+        if (snapshotFile == null || snapshotFile.isBlank()) {
+            return;
+        }
+        try {
+            CatalogSnapshotFile.write(Paths.get(snapshotFile), snap);
+            snapshotFileWrites.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            snapshotFileFailures.incrementAndGet();
+            log.warn("写入菜单目录快照文件失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.demo1.service.impl;
+
+import com.example.demo1.service.CatalogService;
+import com.example.demo1.service.ImageVariantService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * 菜品图片变体服务实现
+ * 源图为static/img/{id}.jpg，变体在首次请求时生成并写入磁盘目录，之后直接复用磁盘文件；
+ * 文件名中的摘要来自源图内容，替换源图后URL随之变化
+ */
+@Service
+public class ImageVariantServiceImpl implements ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantServiceImpl.class);
+
+    /**
+     * 支持的变体宽度：菜单卡片宽280px，分别对应1x和2x屏幕
+     */
+    public static final int[] WIDTHS = {280, 560};
+
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private static final Pattern VARIANT_NAME = Pattern.compile("^(\\d+)-(\\d+)-([0-9a-f]{8})\\.(jpg|webp)$");
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Value("${food.image.variant-dir:${java.io.tmpdir}/demo1-img-variants}")
+    private String variantDir;
+
+    /**
+     * 菜品ID -> 源图摘要，只记录目录中存在且有源图的菜品，大小受菜品数量限制
+     */
+    private final Map<Integer, String> sourceHashes = new ConcurrentHashMap<>();
+
+    /**
+     * 已生成的变体文件，同一变体只生成一次
+     */
+    private final Map<String, Path> variants = new ConcurrentHashMap<>();
+
+    private final boolean webpSupported = ImageIO.getImageWritersByFormatName("webp").hasNext();
+
+    @Override
+    public String url(int foodId, int width, String format) {
+        String hash = sourceHash(foodId);
+        if (hash.isEmpty() || !isSupportedWidth(width) || !isSupportedFormat(format)) {
+            return "/img/" + foodId + ".jpg";
+        }
+        return "/img/v/" + variantName(foodId, width, hash, format);
+    }
+
+    @Override
+    public String srcset(int foodId, String format) {
+        String hash = sourceHash(foodId);
+        if (hash.isEmpty() || !isSupportedFormat(format)) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int width : WIDTHS) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append("/img/v/").append(variantName(foodId, width, hash, format)).append(' ').append(width).append('w');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean isWebpSupported() {
+        return webpSupported;
+    }
+
+    @Override
+    public Path resolve(String name) {
+        Matcher m = VARIANT_NAME.matcher(name);
+        if (!m.matches()) {
+            return null;
+        }
+        int foodId;
+        int width;
+        try {
+            foodId = Integer.parseInt(m.group(1));
+            width = Integer.parseInt(m.group(2));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String format = m.group(4);
+        // 摘要必须与当前源图一致，旧URL不再提供，避免磁盘目录被任意文件名填满
+        if (!isSupportedWidth(width) || !isSupportedFormat(format) || !m.group(3).equals(sourceHash(foodId))) {
+            return null;
+        }
+        return variants.computeIfAbsent(name, key -> generate(foodId, width, format, key));
+    }
+
+    private Path generate(int foodId, int width, String format, String name) {
+        Path target = Paths.get(variantDir).resolve(name);
+        if (Files.isRegularFile(target)) {
+            return target;
+        }
+        try {
+            long start = System.nanoTime();
+            BufferedImage source;
+            try (InputStream in = new ByteArrayInputStream(readSource(foodId))) {
+                source = ImageIO.read(in);
+            }
+            if (source == null) {
+                throw new IOException("无法解码源图: " + foodId);
+            }
+            BufferedImage scaled = scale(source, width);
+
+            // 先写临时文件再原子改名，并发读取方不会看到写了一半的文件
+            Files.createDirectories(target.getParent());
+            Path tmp = Files.createTempFile(target.getParent(), name, ".tmp");
+            try {
+                write(scaled, format, tmp);
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            log.debug("图片变体已生成 - {}, 尺寸: {}x{}, 大小: {}字节, 耗时: {}ms", name, scaled.getWidth(),
+                    scaled.getHeight(), Files.size(target), (System.nanoTime() - start) / 1_000_000);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("生成图片变体失败: " + name, e);
+        }
+    }
+
+    /**
+     * 等比缩放到目标宽度，不放大；缩小超过一半时逐级减半，避免双线性插值丢失细节产生锯齿
+     */
+    static BufferedImage scale(BufferedImage source, int width) {
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(targetWidth, w / 2);
+            h = Math.max(targetHeight, h / 2);
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != targetWidth || h != targetHeight);
+        return current;
+    }
+
+    private void write(BufferedImage image, String format, Path file) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg".equals(format) ? "jpeg" : format);
+        if (!writers.hasNext()) {
+            throw new IOException("没有可用的图片编码器: " + format);
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            if (param.canWriteProgressive()) {
+                // 渐进式编码，弱网下先显示模糊轮廓
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * 源图摘要；菜品不在当前目录中或源图不存在时返回空串且不缓存，
+     * 任意ID的请求不会让缓存无限增长，补上源图后也能立即生效
+     */
+    private String sourceHash(int foodId) {
+        String hash = sourceHashes.get(foodId);
+        if (hash != null) {
+            return hash;
+        }
+        if (catalogService.snapshot().findById(foodId) == null) {
+            return "";
+        }
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(readSource(foodId));
+            hash = String.format("%08x", crc.getValue());
+        } catch (IOException e) {
+            return "";
+        }
+        String existing = sourceHashes.putIfAbsent(foodId, hash);
+        return existing != null ? existing : hash;
+    }
+
+    private byte[] readSource(int foodId) throws IOException {
+        ClassPathResource resource = new ClassPathResource("static/img/" + foodId + ".jpg");
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private boolean isSupportedWidth(int width) {
+        for (int w : WIDTHS) {
+            if (w == width) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSupportedFormat(String format) {
+        return "jpg".equals(format) || ("webp".equals(format) && webpSupported);
+    }
+
+    private static String variantName(int foodId, int width, String hash, String format) {
+        return foodId + "-" + width + "-" + hash + "." + format;
+    }
+}
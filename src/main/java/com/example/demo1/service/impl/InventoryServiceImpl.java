@@ -0,0 +1,321 @@
+package com.example.demo1.service.impl;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.Mapper.foodMapper;
+import com.example.demo1.catalog.StockLedger;
+import com.example.demo1.service.CatalogService;
+import com.example.demo1.service.InventoryService;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 菜品库存服务实现
+ * 可售数量保存在按菜品id下标的StockLedger中，预占和归还都是单个计数器上的CAS，热门菜品高并发加购时没有全局锁；
+ * 每个购物车对每个菜品的预占各占一个条目，条目的修改只锁ConcurrentHashMap的一个桶。
+ * 台账只在本节点内有效，多节点部署时各节点的台账互相看不到对方的预占与售出，只用于加购时预筛；
+ * 结算时以数据库为准，按条件扣减库存，不会超卖。台账在目录版本变化时及定时从数据库重新同步
+ */
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryServiceImpl.class);
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private foodMapper foodMp;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Value("${inventory.reservation-ttl-minutes:15}")
+    private long reservationTtlMinutes;
+
+    private final StockLedger ledger = new StockLedger();
+
+    /**
+     * 购物车标识:菜品ID -> 预占
+     */
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    /**
+     * 台账同步的互斥锁，只在目录版本变化和定时同步时获取
+     */
+    private final Object syncLock = new Object();
+
+    private volatile long syncedVersion = -1;
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder sold = new LongAdder();
+    private final LongAdder stockConflicts = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+
+    @Override
+    public boolean reserve(String cartId, int foodId, int quantity) {
+        if (quantity <= 0) {
+            return true;
+        }
+        StockLedger stock = ledger();
+        long expiresAt = System.currentTimeMillis() + reservationTtlMinutes * 60_000;
+        boolean[] ok = {true};
+        reservations.compute(key(cartId, foodId), (k, r) -> {
+            if (!stock.reserve(foodId, quantity)) {
+                ok[0] = false;
+                return r;
+            }
+            if (r == null) {
+                r = new Reservation(foodId);
+            }
+            r.quantity += quantity;
+            r.expiresAt = expiresAt;
+            return r;
+        });
+        if (ok[0]) {
+            reserved.add(quantity);
+        } else {
+            rejected.increment();
+        }
+        return ok[0];
+    }
+
+    @Override
+    public void release(String cartId, int foodId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        StockLedger stock = ledger();
+        reservations.computeIfPresent(key(cartId, foodId), (k, r) -> {
+            int n = Math.min(quantity, r.quantity);
+            stock.release(foodId, n);
+            r.quantity -= n;
+            return r.quantity == 0 ? null : r;
+        });
+    }
+
+    @Override
+    public List<Integer> confirm(String cartId, Map<Integer, Integer> quantities) {
+        StockLedger stock = ledger();
+        // 先把预占从表中取出，之后过期清理碰不到这些数量；不足的部分重新预占
+        Map<Integer, Integer> taken = new LinkedHashMap<>();
+        List<Integer> shortage = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            int foodId = entry.getKey();
+            int need = entry.getValue();
+            Reservation r = reservations.remove(key(cartId, foodId));
+            int held = r == null ? 0 : r.quantity;
+            if (held < need && !stock.reserve(foodId, need - held)) {
+                shortage.add(foodId);
+            } else {
+                held = Math.max(held, need);
+            }
+            if (held > 0) {
+                taken.put(foodId, held);
+            }
+        }
+
+        if (!shortage.isEmpty()) {
+            putBack(cartId, taken);
+            rejected.increment();
+            return shortage;
+        }
+
+        // 本节点台账看不到其他节点的售出，最终以数据库的条件扣减为准
+        List<Integer> soldOut;
+        try {
+            soldOut = takeStock(quantities);
+        } catch (RuntimeException e) {
+            putBack(cartId, taken);
+            throw e;
+        }
+        if (!soldOut.isEmpty()) {
+            putBack(cartId, taken);
+            rejected.increment();
+            stockConflicts.increment();
+            // 台账落后于数据库，立即重新同步
+            sync();
+            return soldOut;
+        }
+
+        taken.forEach((foodId, held) -> {
+            int need = quantities.get(foodId);
+            // 数据库已经扣减，预占直接转为已写回
+            stock.commit(foodId, need);
+            stock.written(foodId, need);
+            if (held > need) {
+                stock.release(foodId, held - need);
+            }
+            sold.add(need);
+        });
+        return soldOut;
+    }
+
+    @Override
+    public void cancel(String cartId, Map<Integer, Integer> quantities) {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.SIMPLE, false)) {
+            foodMapper mapper = session.getMapper(foodMapper.class);
+            quantities.forEach((foodId, quantity) -> {
+                if (quantity > 0) {
+                    mapper.returnStock(foodId, quantity);
+                }
+            });
+            session.commit();
+        } catch (RuntimeException e) {
+            log.error("撤销结算时加回库存失败，需要人工核对 - 购物车: {}, 菜品: {}, 原因: {}", cartId, quantities, e.getMessage());
+            return;
+        }
+        quantities.values().forEach(quantity -> sold.add(-quantity));
+        // 数据库库存已加回，同步台账后再为放回的购物车预占
+        sync();
+        quantities.forEach((foodId, quantity) -> reserve(cartId, foodId, quantity));
+    }
+
+    /**
+     * 在一个事务中按条件扣减各菜品的库存，任一菜品不足时整体回滚
+     * 需要每条语句的影响行数，使用SIMPLE执行器（批量执行时驱动合并语句后可能不返回行数）
+     *
+     * @return 库存不足的菜品ID
+     */
+    private List<Integer> takeStock(Map<Integer, Integer> quantities) {
+        List<Integer> soldOut = new ArrayList<>();
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.SIMPLE, false)) {
+            foodMapper mapper = session.getMapper(foodMapper.class);
+            quantities.forEach((foodId, quantity) -> {
+                if (quantity > 0 && mapper.takeStock(foodId, quantity) == 0) {
+                    soldOut.add(foodId);
+                }
+            });
+            if (soldOut.isEmpty()) {
+                session.commit();
+            } else {
+                session.rollback();
+            }
+        }
+        return soldOut;
+    }
+
+    /**
+     * 把取出的预占放回购物车，用户调整后可以再次结算
+     */
+    private void putBack(String cartId, Map<Integer, Integer> taken) {
+        long expiresAt = System.currentTimeMillis() + reservationTtlMinutes * 60_000;
+        taken.forEach((foodId, held) -> reservations.merge(key(cartId, foodId), new Reservation(foodId, held, expiresAt),
+                (current, back) -> {
+                    current.quantity += back.quantity;
+                    current.expiresAt = expiresAt;
+                    return current;
+                }));
+    }
+
+    @Override
+    public int available(int foodId) {
+        return ledger().available(foodId);
+    }
+
+    /**
+     * 归还过期的预占
+     */
+    @Scheduled(fixedDelayString = "${inventory.sweep-interval-ms:30000}")
+    public void expireReservations() {
+        long now = System.currentTimeMillis();
+        for (String key : reservations.keySet()) {
+            reservations.computeIfPresent(key, (k, r) -> {
+                if (r.expiresAt > now) {
+                    return r;
+                }
+                ledger.release(r.foodId, r.quantity);
+                expired.add(r.quantity);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * 定时从数据库重新同步台账；只有库存值变化的菜品才会重算
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.sync-interval-ms:5000}")
+    public void sync() {
+        synchronized (syncLock) {
+            try {
+                for (food item : foodMp.findStocks()) {
+                    ledger.sync(item.getId(), item.getStock());
+                }
+                syncs.increment();
+            } catch (RuntimeException e) {
+                log.warn("库存台账同步失败，稍后重试: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inventoryReservations", reservations.size());
+        stats.put("inventoryReserved", reserved.sum());
+        stats.put("inventoryRejected", rejected.sum());
+        stats.put("inventoryExpired", expired.sum());
+        stats.put("inventorySold", sold.sum());
+        stats.put("inventoryStockConflicts", stockConflicts.sum());
+        stats.put("inventorySyncs", syncs.sum());
+        stats.put("inventoryCapacity", ledger.capacity());
+        return stats;
+    }
+
+    /**
+     * 目录版本变化后从数据库重新读取库存，热路径上只有一次volatile读
+     */
+    private StockLedger ledger() {
+        long version = catalogService.version();
+        if (version != syncedVersion) {
+            synchronized (syncLock) {
+                if (version != syncedVersion) {
+                    for (food item : foodMp.findStocks()) {
+                        ledger.sync(item.getId(), item.getStock());
+                    }
+                    syncedVersion = version;
+                }
+            }
+        }
+        return ledger;
+    }
+
+    private static String key(String cartId, int foodId) {
+        return cartId + ':' + foodId;
+    }
+
+    /**
+     * 只在所属条目的compute回调内修改
+     */
+    private static final class Reservation {
+        private final int foodId;
+        private int quantity;
+        private long expiresAt;
+
+        private Reservation(int foodId) {
+            this.foodId = foodId;
+        }
+
+        private Reservation(int foodId, int quantity, long expiresAt) {
+            this.foodId = foodId;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo1.service.impl;
+
+import com.example.demo1.Entity.CartItem;
+import com.example.demo1.Entity.FoodOrder;
+import com.example.demo1.Entity.OrderItem;
+import com.example.demo1.repository.FoodOrderRepository;
+import com.example.demo1.repository.OrderItemRepository;
+import com.example.demo1.service.OrderService;
+import com.example.demo1.service.RecommendationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 订单服务实现
+ */
+@Service
+public class OrderServiceImpl implements OrderService {
+
+    @Autowired
+    private FoodOrderRepository foodOrderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Override
+    @Transactional
+    public FoodOrder placeOrder(List<CartItem> items, long total) {
+        FoodOrder order = new FoodOrder();
+        order.setTotal(total);
+        order.setRestaurantId(items.isEmpty() ? null : items.get(0).getRestaurantId());
+        order = foodOrderRepository.save(order);
+
+        List<OrderItem> lines = new ArrayList<>(items.size());
+        int[] foodIds = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            CartItem item = items.get(i);
+            OrderItem line = new OrderItem();
+            line.setOrderId(order.getId());
+            line.setFoodId(item.getFoodId());
+            line.setName(item.getName());
+            line.setQuantity(item.getQuantity());
+            line.setPrice(item.getPrice());
+            lines.add(line);
+            foodIds[i] = item.getFoodId();
+        }
+        orderItemRepository.saveAll(lines);
+
+        // 事务提交后再计入搭配统计，回滚的订单不影响推荐
+        long orderId = order.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recommendationService.recordOrder(orderId, foodIds);
+                }
+            });
+        } else {
+            recommendationService.recordOrder(orderId, foodIds);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.demo1.service.impl;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.catalog.CooccurrenceMatrix;
+import com.example.demo1.dto.CompanionItem;
+import com.example.demo1.repository.FoodOrderRepository;
+import com.example.demo1.repository.OrderItemRepository;
+import com.example.demo1.service.CatalogService;
+import com.example.demo1.service.RecommendationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 搭配推荐服务实现
+ * 订单提交后增量更新共现矩阵；启动时从订单明细按订单顺序流式重建，
+ * 内存中只保留当前订单的菜品和已读到的订单ID位图，重建期间提交的新订单先缓冲，
+ * 重建完成后补入流中没有读到的订单再切换
+ */
+@Service
+public class RecommendationServiceImpl implements RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationServiceImpl.class);
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private FoodOrderRepository foodOrderRepository;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+
+    private final Object rebuildLock = new Object();
+
+    /**
+     * 重建期间提交的订单，非重建期间为null；由rebuildLock保护
+     */
+    private List<PendingOrder> pending;
+
+    private volatile long lastRebuildMillis;
+
+    @Override
+    public void recordOrder(long orderId, int[] foodIds) {
+        synchronized (rebuildLock) {
+            if (pending != null) {
+                pending.add(new PendingOrder(orderId, foodIds));
+            }
+            matrix.addOrder(foodIds);
+        }
+    }
+
+    @Override
+    public List<CompanionItem> companions(int foodId, int limit) {
+        CatalogSnapshot snap = catalogService.snapshot();
+        // 多取一些，过滤掉已下架的菜品后仍能凑够条数
+        List<CooccurrenceMatrix.Companion> candidates = matrix.companions(foodId, limit * 2);
+        List<CompanionItem> result = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (CooccurrenceMatrix.Companion companion : candidates) {
+            food item = snap.findById(companion.foodId());
+            if (item != null) {
+                result.add(new CompanionItem(item, companion.count()));
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("搭配推荐重建失败，从空矩阵开始增量统计: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public long rebuild() {
+        long start = System.nanoTime();
+        synchronized (rebuildLock) {
+            if (pending != null) {
+                throw new IllegalStateException("搭配推荐正在重建");
+            }
+            pending = new ArrayList<>();
+        }
+
+        CooccurrenceMatrix fresh = new CooccurrenceMatrix();
+        // 流实际读到的订单ID；订单ID自增且密集，每个订单占一位
+        BitSet seen = new BitSet();
+        long maxOrderId;
+        try {
+            Long maxId = foodOrderRepository.findMaxId();
+            maxOrderId = maxId == null ? 0 : maxId;
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            tx.executeWithoutResult(status -> {
+                try (Stream<Object[]> lines = orderItemRepository.streamOrderLines(maxOrderId)) {
+                    OrderAccumulator acc = new OrderAccumulator(fresh, seen);
+                    lines.forEach(line -> acc.accept(((Number) line[0]).longValue(), ((Number) line[1]).intValue()));
+                    acc.flush();
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (rebuildLock) {
+                pending = null;
+            }
+            throw e;
+        }
+
+        synchronized (rebuildLock) {
+            // 只按流中是否读到判断：ID不大于上限、但在流的快照之后才提交的订单同样要补入
+            for (PendingOrder order : pending) {
+                if (order.orderId() > Integer.MAX_VALUE || !seen.get((int) order.orderId())) {
+                    fresh.addOrder(order.foodIds());
+                }
+            }
+            pending = null;
+            matrix = fresh;
+        }
+        lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("搭配推荐已重建 - 订单数: {}, 菜品对: {}, 耗时: {}ms",
+                fresh.orderCount(), fresh.pairCount(), lastRebuildMillis);
+        return fresh.orderCount();
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        CooccurrenceMatrix current = matrix;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("companionOrders", current.orderCount());
+        result.put("companionPairs", current.pairCount());
+        result.put("companionLastRebuildMillis", lastRebuildMillis);
+        return result;
+    }
+
+    private record PendingOrder(long orderId, int[] foodIds) {
+    }
+
+    /**
+     * 把按订单ID有序的明细行聚合为订单，订单ID变化时计入上一个订单，并记下读到的订单ID
+     */
+    private static final class OrderAccumulator {
+        private final CooccurrenceMatrix target;
+        private final BitSet seen;
+        private long orderId = -1;
+        private int[] foodIds = new int[8];
+        private int size;
+
+        private OrderAccumulator(CooccurrenceMatrix target, BitSet seen) {
+            this.target = target;
+            this.seen = seen;
+        }
+
+        private void accept(long lineOrderId, int foodId) {
+            if (lineOrderId != orderId) {
+                flush();
+                orderId = lineOrderId;
+                seen.set(Math.toIntExact(lineOrderId));
+            }
+            if (size == foodIds.length) {
+                foodIds = Arrays.copyOf(foodIds, size * 2);
+            }
+            foodIds[size++] = foodId;
+        }
+
+        private void flush() {
+            if (size > 0) {
+                target.addOrder(Arrays.copyOf(foodIds, size));
+                size = 0;
+            }
+        }
+    }
+}
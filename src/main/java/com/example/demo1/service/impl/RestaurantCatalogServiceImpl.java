@@ -0,0 +1,172 @@
+package com.example.demo1.service.impl;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.Mapper.foodMapper;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.catalog.CatalogSort;
+import com.example.demo1.catalog.MenuFragmentCache;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import com.example.demo1.service.CatalogService;
+import com.example.demo1.service.RestaurantCatalogService;
+import com.example.demo1.service.TrendingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按餐厅分区的菜单目录服务实现
+ * 每个餐厅的快照只通过 (restaurant_id, id) 索引读取该餐厅的行，版本为该餐厅自己的菜单版本，
+ * 只有影响该餐厅（或影响所有餐厅）的变更才使分区重新加载；
+ * 各分区有自己的刷新锁，大型连锁店重新加载时不阻塞小店，长时间无人访问的分区被单独淘汰
+ */
+@Service
+public class RestaurantCatalogServiceImpl implements RestaurantCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantCatalogServiceImpl.class);
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private foodMapper foodMp;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private MenuFragmentCache menuFragmentCache;
+
+    @Value("${catalog.storage:heap}")
+    private String storage;
+
+    /**
+     * 分区闲置超过该时间后释放快照和菜单片段
+     */
+    @Value("${catalog.partition.idle-minutes:30}")
+    private long idleMinutes;
+
+    private final ConcurrentHashMap<Integer, Partition> partitions = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Override
+    public CatalogSnapshot snapshot(int restaurantId) {
+        Partition partition = partitions.computeIfAbsent(restaurantId, id -> new Partition());
+        partition.lastAccess = System.currentTimeMillis();
+        long version = catalogService.restaurantVersion(restaurantId);
+        CatalogSnapshot snap = partition.snap;
+        if (snap.getVersion() >= version) {
+            hits.increment();
+            return snap;
+        }
+        return reload(restaurantId, partition, snap, version);
+    }
+
+    @Override
+    public CatalogPage page(int restaurantId, CatalogQuery query) {
+        CatalogSnapshot snap = snapshot(restaurantId);
+        if (query.sortOrder() == CatalogSort.HOT) {
+            return trendingService.page(snap, query);
+        }
+        return snap.page(query);
+    }
+
+    @Override
+    public food findById(int restaurantId, int id) {
+        return snapshot(restaurantId).findById(id);
+    }
+
+    @Override
+    public void evict(int restaurantId) {
+        if (partitions.remove(restaurantId) != null) {
+            evictions.increment();
+        }
+        menuFragmentCache.evict(restaurantId);
+    }
+
+    /**
+     * 淘汰闲置的分区，只影响对应餐厅
+     */
+    @Scheduled(fixedDelayString = "${catalog.partition.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long deadline = System.currentTimeMillis() - idleMinutes * 60_000;
+        for (Map.Entry<Integer, Partition> entry : partitions.entrySet()) {
+            if (entry.getValue().lastAccess < deadline && partitions.remove(entry.getKey(), entry.getValue())) {
+                evictions.increment();
+                menuFragmentCache.evict(entry.getKey());
+                log.debug("餐厅 {} 的菜单分区闲置，已释放", entry.getKey());
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        long foods = 0;
+        for (Partition partition : partitions.values()) {
+            foods += partition.snap.size();
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("restaurantPartitions", partitions.size());
+        result.put("restaurantPartitionFoods", foods);
+        result.put("restaurantPartitionHits", hits.sum());
+        result.put("restaurantPartitionLoads", loads.sum());
+        result.put("restaurantPartitionLoadFailures", loadFailures.sum());
+        result.put("restaurantPartitionEvictions", evictions.sum());
+        return result;
+    }
+
+    private CatalogSnapshot reload(int restaurantId, Partition partition, CatalogSnapshot stale, long version) {
+        // 已有可用快照时不排队等待，由正在刷新的线程负责替换
+        if (stale.isLoaded()) {
+            if (!partition.lock.tryLock()) {
+                return stale;
+            }
+        } else {
+            partition.lock.lock();
+        }
+
+        try {
+            CatalogSnapshot snap = partition.snap;
+            if (snap.getVersion() >= version) {
+                return snap;
+            }
+            long start = System.nanoTime();
+            CatalogSnapshot fresh = CatalogSnapshot.of(version, foodMp.findByRestaurant(restaurantId),
+                    "columnar".equalsIgnoreCase(storage));
+            partition.snap = fresh;
+            loads.increment();
+            log.debug("餐厅 {} 的菜单分区已加载 - 版本: {}, 菜品数: {}, 耗时: {}ms",
+                    restaurantId, version, fresh.size(), (System.nanoTime() - start) / 1_000_000);
+            return fresh;
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            CatalogSnapshot snap = partition.snap;
+            if (snap.isLoaded()) {
+                log.warn("餐厅 {} 的菜单分区刷新失败，继续使用版本 {} 的快照: {}", restaurantId, snap.getVersion(), e.getMessage());
+                return snap;
+            }
+            throw e;
+        } finally {
+            partition.lock.unlock();
+        }
+    }
+
+    private static final class Partition {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile CatalogSnapshot snap = CatalogSnapshot.empty();
+        private volatile long lastAccess;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.demo1.service.impl;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.catalog.TrendingSketch;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import com.example.demo1.dto.TrendingItem;
+import com.example.demo1.service.TrendingService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热门菜品服务实现
+ * 加购事件只写入Count-Min Sketch；排名在读取时按快照中的菜品逐个估计，
+ * 结果缓存一小段时间，高频轮询不会重复计算
+ */
+@Service
+public class TrendingServiceImpl implements TrendingService {
+
+    /**
+     * /food/trending最多返回的条数
+     */
+    public static final int MAX_TOP = 50;
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 2048;
+
+    /**
+     * 排名结果的缓存时间
+     */
+    private static final long RANKING_TTL_MILLIS = 1000;
+
+    @Value("${trending.window-minutes:60}")
+    private int windowMinutes;
+
+    @Value("${trending.buckets:12}")
+    private int buckets;
+
+    private TrendingSketch sketch;
+
+    private final LongAdder adds = new LongAdder();
+
+    private volatile Ranking ranking;
+
+    @PostConstruct
+    public void init() {
+        sketch = new TrendingSketch(SKETCH_DEPTH, SKETCH_WIDTH, buckets, windowMinutes * 60_000L / buckets);
+    }
+
+    @Override
+    public void recordAdd(int foodId) {
+        sketch.add(foodId, System.currentTimeMillis());
+        adds.increment();
+    }
+
+    @Override
+    public List<TrendingItem> top(CatalogSnapshot snap, int limit) {
+        Ranking r = ranking(snap);
+        int n = Math.min(Math.max(limit, 0), r.topPositions.length);
+        List<TrendingItem> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int pos = r.topPositions[i];
+            result.add(new TrendingItem(snap.getFoods().get(pos), r.counts[pos]));
+        }
+        return result;
+    }
+
+    @Override
+    public CatalogPage page(CatalogSnapshot snap, CatalogQuery query) {
+        Ranking r = ranking(snap);
+        List<food> foods = snap.getFoods();
+        long[] after = parseCursor(query.getCursor());
+        int limit = query.pageSize();
+        int slot = query.availabilitySlot();
+
+        List<food> items = new ArrayList<>(limit);
+        int last = -1;
+        boolean hasMore = false;
+        for (int pos : r.order()) {
+            if (!snap.matches(pos, query, slot)) {
+                continue;
+            }
+            if (after != null && !r.isAfter(pos, after[0], (int) after[1])) {
+                continue;
+            }
+            if (items.size() == limit) {
+                hasMore = true;
+                break;
+            }
+            items.add(foods.get(pos));
+            last = pos;
+        }
+        // 游标记录上一页最后一行的 (热度, id)，排名每秒重算也从该行之后继续，不会因名次变化整体错位
+        String nextCursor = hasMore ? r.counts[last] + ":" + r.ids[last] : null;
+        return new CatalogPage(items, nextCursor, hasMore, snap.getVersion());
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("trendingAdds", adds.sum());
+        result.put("trendingWindowMinutes", sketch.windowMillis() / 60_000);
+        result.put("trendingSketchBytes", sketch.memoryBytes());
+        return result;
+    }
+
+    private Ranking ranking(CatalogSnapshot snap) {
+        long now = System.currentTimeMillis();
+        Ranking r = ranking;
+        if (r != null && r.version == snap.getVersion() && now - r.computedAt < RANKING_TTL_MILLIS) {
+            return r;
+        }
+        // 并发时可能有多个线程同时重算，结果相同，不加锁
+        r = new Ranking(snap, sketch, now);
+        ranking = r;
+        return r;
+    }
+
+    /**
+     * 解析 "热度:id" 格式的游标，无效游标从头开始
+     */
+    private static long[] parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        int sep = cursor.indexOf(':');
+        try {
+            return new long[]{Long.parseLong(cursor.substring(0, sep)), Integer.parseInt(cursor.substring(sep + 1))};
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 某一时刻的排名：counts与快照菜品按位置对齐，topPositions为前MAX_TOP名（只含有加购记录的菜品）
+     */
+    private static final class Ranking {
+        private final long version;
+        private final long computedAt;
+        private final long[] counts;
+        private final int[] topPositions;
+        private final int[] ids;
+        private volatile int[] order;
+
+        private Ranking(CatalogSnapshot snap, TrendingSketch sketch, long now) {
+            List<food> foods = snap.getFoods();
+            this.version = snap.getVersion();
+            this.computedAt = now;
+            this.counts = new long[foods.size()];
+            this.ids = new int[foods.size()];
+
+            // 小顶堆保留计数最高的MAX_TOP个位置，计数相同时id小的优先
+            PriorityQueue<Integer> heap = new PriorityQueue<>(MAX_TOP + 1, (a, b) -> compare(b, a));
+            for (int pos = 0; pos < counts.length; pos++) {
+                ids[pos] = foods.get(pos).getId();
+                counts[pos] = sketch.estimate(ids[pos], now);
+                if (counts[pos] == 0) {
+                    continue;
+                }
+                heap.offer(pos);
+                if (heap.size() > MAX_TOP) {
+                    heap.poll();
+                }
+            }
+            this.topPositions = new int[heap.size()];
+            for (int i = topPositions.length - 1; i >= 0; i--) {
+                topPositions[i] = heap.poll();
+            }
+        }
+
+        /**
+         * 全部菜品按热度排序的位置，仅热度排序分页时需要，首次使用时计算
+         */
+        private int[] order() {
+            int[] result = order;
+            if (result == null) {
+                Integer[] boxed = new Integer[counts.length];
+                for (int i = 0; i < boxed.length; i++) {
+                    boxed[i] = i;
+                }
+                Arrays.sort(boxed, this::compare);
+                result = new int[boxed.length];
+                for (int i = 0; i < boxed.length; i++) {
+                    result[i] = boxed[i];
+                }
+                order = result;
+            }
+            return result;
+        }
+
+        /**
+         * 该位置在热度降序、id升序中是否排在 (count, id) 之后
+         */
+        private boolean isAfter(int pos, long count, int id) {
+            return counts[pos] < count || (counts[pos] == count && ids[pos] > id);
+        }
+
+        /**
+         * 热度降序、id升序
+         */
+        private int compare(int a, int b) {
+            int cmp = Long.compare(counts[b], counts[a]);
+            return cmp != 0 ? cmp : Integer.compare(ids[a], ids[b]);
+        }
+    }
+}
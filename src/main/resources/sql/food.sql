@@ -6,16 +6,28 @@ CREATE TABLE IF NOT EXISTS food (
     id INT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     info TEXT,
-    price INT,
-    level INT
+    price BIGINT,                    -- 单价，单位为分
+    level INT,
+    stock INT DEFAULT NULL,          -- 库存，NULL表示不限量
+    available_from INT DEFAULT NULL, -- 供应开始时刻（当天分钟数），NULL表示全天
+    available_to INT DEFAULT NULL,   -- 供应结束时刻（不含），小于开始时刻表示跨过零点
+    restaurant_id INT NOT NULL DEFAULT 1, -- 所属餐厅
+    INDEX idx_food_restaurant (restaurant_id, id) -- 按餐厅读取菜单时只扫描该餐厅的行
 );
 
+-- 已有数据库补充库存列、供应时段列与餐厅列
+-- ALTER TABLE food ADD COLUMN stock INT DEFAULT NULL;
+-- ALTER TABLE food ADD COLUMN available_from INT DEFAULT NULL, ADD COLUMN available_to INT DEFAULT NULL;
+-- ALTER TABLE food ADD COLUMN restaurant_id INT NOT NULL DEFAULT 1, ADD INDEX idx_food_restaurant (restaurant_id, id);
+-- 价格由元改为分
+-- ALTER TABLE food MODIFY price BIGINT; UPDATE food SET price = price * 100;
+
 INSERT INTO food (id, name, info, price, level) VALUES
-(1, '宫保鸡丁', '经典川菜，口感麻辣鲜香', 28, 3),
-(2, '麻婆豆腐', '四川传统名菜，麻辣可口', 22, 2),
-(3, '清蒸鲈鱼', '清淡爽口，保持鱼的原汁原味', 35, 4),
-(4, '红烧肉', '肥而不腻，入口即化', 30, 3),
-(5, '酸辣汤', '开胀解腻的美味汤品', 18, 2),
-(6, '糖醋排骨', '外酥里嫩，甜酸可口', 25, 3),
-(7, '鱼香肉丝', '川菜代表，咸鲜开胃', 24, 3),
-(8, '水煮肉片', '麻辣鲜香，肉质滑嫩', 26, 3);
+(1, '宫保鸡丁', '经典川菜，口感麻辣鲜香', 2800, 3),
+(2, '麻婆豆腐', '四川传统名菜，麻辣可口', 2200, 2),
+(3, '清蒸鲈鱼', '清淡爽口，保持鱼的原汁原味', 3500, 4),
+(4, '红烧肉', '肥而不腻，入口即化', 3000, 3),
+(5, '酸辣汤', '开胀解腻的美味汤品', 1800, 2),
+(6, '糖醋排骨', '外酥里嫩，甜酸可口', 2500, 3),
+(7, '鱼香肉丝', '川菜代表，咸鲜开胃', 2400, 3),
+(8, '水煮肉片', '麻辣鲜香，肉质滑嫩', 2600, 3);
@@ -0,0 +1,206 @@
+package com.example.demo1.cart;
+
+import com.example.demo1.config.MockRedisConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CartStoreTest {
+
+    static List<CartStore> stores() {
+        InMemoryCartStore memory = new InMemoryCartStore();
+        ReflectionTestUtils.setField(memory, "ttlMinutes", 1440L);
+        ReflectionTestUtils.setField(memory, "historySize", 3);
+        RedisCartStore redis = new RedisCartStore();
+        ReflectionTestUtils.setField(redis, "redisTemplate", new MockRedisConfig.MockStringRedisTemplate());
+        ReflectionTestUtils.setField(redis, "ttlMinutes", 1440L);
+        ReflectionTestUtils.setField(redis, "historySize", 3);
+        return List.of(memory, redis);
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    @DisplayName("测试加购、增减数量与删除时总金额增量维护")
+    public void testIncrementalTotal(CartStore store) {
+        String cartId = UUID.randomUUID().toString();
+        store.add(cartId, 1, 2, 2800, 1);
+        store.add(cartId, 2, 1, 2250, 1);
+        Cart cart = store.add(cartId, 1, 1, 9900, 1);
+        assertEquals(3, cart.quantity(1));
+        assertEquals(2800, cart.line(1).unitPrice(), "已有的行保留原单价");
+        assertEquals(3 * 2800 + 2250, cart.getTotal());
+
+        cart = store.adjust(cartId, 1, -5);
+        assertEquals(0, cart.quantity(1));
+        assertEquals(2250, cart.getTotal());
+        assertEquals(2250, store.adjust(cartId, 3, 1).getTotal(), "购物车中没有的菜品不做修改");
+
+        cart = store.reprice(cartId, Map.of(2, 1999L));
+        assertEquals(1999, cart.getTotal());
+        assertEquals(List.of(2), cart.getLines().stream().map(CartLine::foodId).toList());
+
+        cart = store.remove(cartId, 2);
+        assertTrue(cart.isEmpty());
+        assertEquals(0, cart.getTotal());
+        assertTrue(store.get(cartId).isEmpty());
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    @DisplayName("测试购物车只接受同一餐厅的菜品，清空后可以换餐厅")
+    public void testSingleRestaurant(CartStore store) {
+        String cartId = UUID.randomUUID().toString();
+        store.add(cartId, 1, 1, 2800, 1);
+        Cart cart = store.add(cartId, 9, 1, 1500, 2);
+        assertEquals(1, cart.getRestaurantId());
+        assertEquals(0, cart.quantity(9));
+
+        store.clear(cartId);
+        cart = store.add(cartId, 9, 1, 1500, 2);
+        assertEquals(2, cart.getRestaurantId());
+        assertEquals(1500, store.get(cartId).getTotal());
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    @DisplayName("测试不同购物车互不影响")
+    public void testIsolation(CartStore store) {
+        String a = UUID.randomUUID().toString();
+        String b = UUID.randomUUID().toString();
+        store.add(a, 1, 1, 2800, 1);
+        store.add(b, 2, 2, 2250, 1);
+        assertEquals(2800, store.get(a).getTotal());
+        assertEquals(4500, store.get(b).getTotal());
+        assertEquals(0, store.get(a).quantity(2));
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    @DisplayName("测试批量操作整体生效、版本号只加一，有其他餐厅菜品时整批不生效")
+    public void testApplyBatch(CartStore store) {
+        String cartId = UUID.randomUUID().toString();
+        Cart cart = store.apply(cartId, List.of(
+                CartOp.add(1, 2, 2800, 1),
+                CartOp.add(2, 1, 2250, 1),
+                CartOp.adjust(1, -1),
+                CartOp.remove(3)));
+        long base = cart.getVersion();
+        assertTrue(base > 0);
+        assertEquals(1, cart.quantity(1));
+        assertEquals(2800 + 2250, cart.getTotal());
+        assertEquals(Map.of(1, 1, 2, 1), cart.getQuantityChanges());
+
+        assertNull(store.apply(cartId, List.of(CartOp.remove(1), CartOp.add(9, 1, 1500, 2))));
+        cart = store.get(cartId);
+        assertEquals(base, cart.getVersion(), "整批不生效时版本号不变");
+        assertEquals(1, cart.quantity(1));
+        assertEquals(2800 + 2250, cart.getTotal());
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    @DisplayName("测试版本号只在有实际变化时递增，清空后不回退；新购物车从当前时间起始，过期重建后不会重复")
+    public void testVersion(CartStore store) {
+        String cartId = UUID.randomUUID().toString();
+        long start = System.currentTimeMillis();
+        assertEquals(0, store.adjust(cartId, 1, 1).getVersion());
+        long base = store.add(cartId, 1, 1, 2800, 1).getVersion();
+        assertTrue(base >= start, "过期前客户端持有的版本号都小于重建时的起始版本");
+        assertEquals(base, store.adjust(cartId, 2, 1).getVersion(), "购物车中没有的菜品不做修改");
+        assertEquals(base, store.reprice(cartId, Map.of(1, 2800L)).getVersion(), "单价未变不算修改");
+        assertEquals(base + 1, store.remove(cartId, 1).getVersion());
+
+        store.clear(cartId);
+        assertEquals(base + 1, store.get(cartId).getVersion(), "空购物车清空不算修改");
+        store.add(cartId, 1, 1, 2800, 1);
+        store.clear(cartId);
+        Cart cart = store.get(cartId);
+        assertTrue(cart.isEmpty());
+        assertEquals(base + 3, cart.getVersion());
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    @DisplayName("测试按版本号清空：期间有修改时不清空，同一版本只能认领一次")
+    public void testClearExpectedVersion(CartStore store) {
+        String cartId = UUID.randomUUID().toString();
+        assertTrue(store.clear(cartId, 0), "不存在的购物车版本号为0");
+        long priced = store.add(cartId, 1, 1, 2800, 1).getVersion();
+
+        // 计价后另一个页面又加了菜
+        store.add(cartId, 2, 1, 2250, 1);
+        assertFalse(store.clear(cartId, priced));
+        assertEquals(2, store.get(cartId).size(), "新加入的菜品没有被清掉");
+
+        long current = store.get(cartId).getVersion();
+        assertTrue(store.clear(cartId, current));
+        assertFalse(store.clear(cartId, current), "已被认领的版本不能再次清空");
+        assertTrue(store.get(cartId).isEmpty());
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    @DisplayName("测试按过期版本号修改：数量增减合并到最新购物车，删除冲突并返回当前购物车")
+    public void testOptimisticVersion(CartStore store) {
+        String cartId = UUID.randomUUID().toString();
+        long seen = store.add(cartId, 1, 1, 2800, 1).getVersion();
+
+        // 另一个页面在此期间又加了一份
+        store.add(cartId, 1, 1, 2800, 1);
+
+        Cart cart = store.apply(cartId, List.of(CartOp.adjust(1, 1), CartOp.add(2, 1, 2250, 1)), seen);
+        assertEquals(3, cart.quantity(1), "两个页面的增量都生效");
+        assertEquals(seen + 2, cart.getVersion());
+        assertEquals(Map.of(1, 1, 2, 1), cart.getQuantityChanges(), "数量变化基于合并时的最新购物车");
+
+        CartVersionConflictException conflict = assertThrows(CartVersionConflictException.class,
+                () -> store.apply(cartId, List.of(CartOp.remove(1)), seen));
+        assertEquals(seen + 2, conflict.getCurrent().getVersion());
+        assertEquals(3, store.get(cartId).quantity(1), "冲突时不做修改");
+
+        cart = store.apply(cartId, List.of(CartOp.remove(1)), conflict.getCurrent().getVersion());
+        assertEquals(0, cart.quantity(1));
+        assertEquals(Map.of(1, -3), cart.getQuantityChanges());
+        assertEquals(seen + 3, cart.getVersion());
+    }
+
+    @ParameterizedTest
+    @MethodSource("stores")
+    @DisplayName("测试增量同步只返回改动过的行和删除的菜品，历史被淘汰后返回完整快照")
+    public void testChangesSince(CartStore store) {
+        String cartId = UUID.randomUUID().toString();
+        long base = store.add(cartId, 1, 1, 2800, 1).getVersion();
+        store.add(cartId, 2, 1, 2250, 1);
+        long seen = store.add(cartId, 3, 1, 1500, 1).getVersion();
+
+        store.adjust(cartId, 1, 1);
+        store.remove(cartId, 2);
+        CartDelta delta = store.changesSince(cartId, seen);
+        assertFalse(delta.full());
+        assertEquals(base + 4, delta.version());
+        assertEquals(List.of(1), delta.lines().stream().map(CartLine::foodId).toList());
+        assertEquals(2, delta.lines().iterator().next().quantity());
+        assertEquals(List.of(2), delta.removed());
+        assertEquals(2 * 2800 + 1500, delta.total());
+
+        delta = store.changesSince(cartId, base + 4);
+        assertFalse(delta.full());
+        assertTrue(delta.lines().isEmpty() && delta.removed().isEmpty());
+
+        // 只保留最近3个版本，第一个版本之后的变化已无法还原
+        delta = store.changesSince(cartId, base);
+        assertTrue(delta.full());
+        assertEquals(List.of(1, 3), delta.lines().stream().map(CartLine::foodId).sorted().toList());
+        assertTrue(delta.removed().isEmpty());
+
+        assertTrue(store.changesSince(cartId, base + 9).full(), "客户端的版本号比当前新，说明购物车已过期重建");
+        assertTrue(store.changesSince(UUID.randomUUID().toString(), 0).lines().isEmpty());
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.demo1.cart;
+
+import com.example.demo1.config.MockRedisConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedisCartStoreTest {
+
+    private MockRedisConfig.MockStringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        redisTemplate = new MockRedisConfig.MockStringRedisTemplate();
+    }
+
+    @Test
+    @DisplayName("测试购物车以哈希保存：菜品ID为字段、数量为值，另有单价、餐厅、总金额、版本号与修改记录")
+    public void testHashLayout() {
+        RedisCartStore store = store();
+        String cartId = UUID.randomUUID().toString();
+        long base = store.add(cartId, 1, 2, 2800, 3).getVersion();
+        store.add(cartId, 2, 1, 2250, 3);
+
+        HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+        Map<String, String> fields = hash.entries("cart:" + cartId);
+        assertEquals("2", fields.get("1"));
+        assertEquals("1", fields.get("2"));
+        assertEquals("2800", fields.get("p:1"));
+        assertEquals("3", fields.get("restaurant"));
+        assertEquals("7850", fields.get("total"));
+
+        assertEquals(String.valueOf(base + 1), fields.get("version"));
+
+        assertEquals(2L, store.stats().get("cartTransactions"));
+        store.remove(cartId, 1);
+        store.remove(cartId, 2);
+        assertEquals(Map.of("restaurant", "0", "total", "0", "version", String.valueOf(base + 3),
+                        "h:" + base, "1", "h:" + (base + 1), "2", "h:" + (base + 2), "1", "h:" + (base + 3), "2"),
+                hash.entries("cart:" + cartId),
+                "清空后只保留版本号与修改记录，直到过期");
+    }
+
+    @Test
+    @DisplayName("测试一次修改固定三次往返：WATCH与读取一个管道，MULTI与EXEC各一次，不随改动的字段数增加")
+    public void testThreeRoundTripsPerUpdate() {
+        RedisCartStore store = store();
+        String cartId = UUID.randomUUID().toString();
+
+        long before = redisTemplate.getRoundTrips();
+        store.apply(cartId, List.of(CartOp.add(1, 2, 2800, 3), CartOp.add(2, 1, 2250, 3), CartOp.add(3, 1, 1500, 3)));
+        assertEquals(3, redisTemplate.getRoundTrips() - before);
+        assertTrue((Long) store.stats().get("cartQueuedCommands") > 2);
+
+        before = redisTemplate.getRoundTrips();
+        store.remove(cartId, 1);
+        assertEquals(3, redisTemplate.getRoundTrips() - before);
+    }
+
+    @Test
+    @DisplayName("测试模拟管道按顺序返回各命令结果，管道内的命令返回null")
+    public void testMockPipeline() {
+        String key = "pipeline:" + UUID.randomUUID();
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                HashOperations<String, String, String> hash = ((RedisOperations<String, String>) operations).opsForHash();
+                assertNull(hash.increment(key, "a", 2));
+                hash.increment(key, "a", 3);
+                hash.get(key, "a");
+                ((RedisOperations<String, String>) operations).expire(key, 1, TimeUnit.MINUTES);
+                return null;
+            }
+        });
+        assertEquals(List.of(2L, 5L, "5", true), results);
+    }
+
+    @Test
+    @DisplayName("测试两个节点并发加购同一菜品时数量累加，不互相覆盖")
+    public void testConcurrentAddsAcrossNodes() throws Exception {
+        RedisCartStore nodeA = store();
+        RedisCartStore nodeB = store();
+        String cartId = UUID.randomUUID().toString();
+        nodeA.add(cartId, 1, 1, 1000, 1);
+
+        int perNode = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        for (RedisCartStore node : List.of(nodeA, nodeB)) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perNode; i++) {
+                    node.add(cartId, 1, 1, 1000, 1);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Cart cart = nodeB.get(cartId);
+        assertEquals(1 + 2 * perNode, cart.quantity(1));
+        assertEquals((1 + 2 * perNode) * 1000L, cart.getTotal());
+    }
+
+    @Test
+    @DisplayName("测试模拟事务：WATCH的键在EXEC前被修改时放弃整个事务")
+    public void testMockWatch() {
+        String key = "watch:" + UUID.randomUUID();
+        HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+        hash.put(key, "a", "1");
+
+        List<Object> results = redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.watch(key);
+                ops.multi();
+                assertNull(ops.<String, String>opsForHash().increment(key, "a", 1), "事务中的命令只排队");
+                return ops.exec();
+            }
+        });
+        assertEquals(List.of(2L), results);
+
+        results = redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.watch(key);
+                hash.put(key, "a", "10");
+                ops.multi();
+                ops.<String, String>opsForHash().increment(key, "a", 1);
+                return ops.exec();
+            }
+        });
+        // 与Lettuce一样，放弃的事务返回null
+        assertNull(results);
+        assertEquals("10", hash.get(key, "a"));
+
+        // 管道中的EXEC在Spring Data Redis + Lettuce下结果无法对应，模拟实现同样拒绝
+        assertThrows(IllegalStateException.class, () -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> pipe) {
+                pipe.multi();
+                ((RedisOperations<String, String>) pipe).<String, String>opsForHash().increment(key, "a", 1);
+                pipe.exec();
+                return null;
+            }
+        }));
+        assertEquals("10", hash.get(key, "a"));
+    }
+
+    @Test
+    @DisplayName("测试两个节点并发删除与加购同一菜品时，数量、单价与总金额保持一致")
+    public void testConcurrentRemoveAndAdd() throws Exception {
+        RedisCartStore nodeA = store();
+        RedisCartStore nodeB = store();
+        String cartId = UUID.randomUUID().toString();
+        nodeA.add(cartId, 2, 1, 500, 1);
+
+        int rounds = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < rounds; i++) {
+                nodeA.add(cartId, 1, 1, 1000, 1);
+            }
+            return null;
+        });
+        executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < rounds; i++) {
+                nodeB.remove(cartId, 1);
+            }
+            return null;
+        });
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Cart cart = nodeB.get(cartId);
+        int quantity = cart.quantity(1);
+        if (quantity > 0) {
+            assertEquals(1000, cart.line(1).unitPrice(), "删除后重新加入的行带有单价");
+        }
+        assertEquals(quantity * 1000L + 500, cart.getTotal());
+        assertTrue(cart.getVersion() > rounds, "每次加购都使版本号递增，没有被覆盖的修改");
+    }
+
+    private RedisCartStore store() {
+        RedisCartStore store = new RedisCartStore();
+        ReflectionTestUtils.setField(store, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(store, "ttlMinutes", 1440L);
+        ReflectionTestUtils.setField(store, "historySize", 16);
+        return store;
+    }
+}
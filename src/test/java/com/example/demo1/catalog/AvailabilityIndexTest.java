@@ -0,0 +1,120 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AvailabilityIndexTest {
+
+    @Test
+    @DisplayName("测试供应时段只标记完整覆盖的15分钟时段，支持跨零点")
+    public void testCovers() {
+        int breakfastEnd = AvailabilityIndex.slotOf(LocalTime.of(10, 0));
+        assertTrue(AvailabilityIndex.covers(6 * 60, 10 * 60, breakfastEnd - 1));
+        assertFalse(AvailabilityIndex.covers(6 * 60, 10 * 60, breakfastEnd));
+        // 10:10结束，10:00-10:15时段不完整覆盖
+        assertFalse(AvailabilityIndex.covers(6 * 60, 10 * 60 + 10, breakfastEnd));
+
+        int lateNight = AvailabilityIndex.slotOf(LocalTime.of(23, 30));
+        int earlyMorning = AvailabilityIndex.slotOf(LocalTime.of(1, 45));
+        int noon = AvailabilityIndex.slotOf(LocalTime.of(12, 0));
+        assertTrue(AvailabilityIndex.covers(22 * 60, 2 * 60, lateNight));
+        assertTrue(AvailabilityIndex.covers(22 * 60, 2 * 60, earlyMorning));
+        assertFalse(AvailabilityIndex.covers(22 * 60, 2 * 60, noon));
+
+        assertTrue(AvailabilityIndex.covers(null, null, noon));
+        assertTrue(AvailabilityIndex.covers(22 * 60, 24 * 60, AvailabilityIndex.SLOTS - 1));
+    }
+
+    @Test
+    @DisplayName("测试每个时段的位图与菜品位置对齐")
+    public void testBuild() {
+        AvailabilityIndex index = AvailabilityIndex.build(menu(70));
+        int morning = AvailabilityIndex.slotOf(LocalTime.of(8, 0));
+        int night = AvailabilityIndex.slotOf(LocalTime.of(23, 0));
+
+        // 位置0、3、6…全天；1、4、7…早餐；2、5、8…夜宵
+        assertTrue(index.isAvailable(0, morning));
+        assertTrue(index.isAvailable(1, morning));
+        assertFalse(index.isAvailable(2, morning));
+        assertTrue(index.isAvailable(68, night));
+        assertFalse(index.isAvailable(67, night));
+        assertEquals(24 + 23, index.count(morning));
+        assertEquals(24 + 23, index.count(night));
+        assertEquals(2, index.slot(morning).length);
+    }
+
+    @Test
+    @DisplayName("测试按指定时刻分页只返回可点菜品，与其他过滤条件组合")
+    public void testPageAt() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(1, menu(9));
+        CatalogQuery query = new CatalogQuery();
+        query.setAt("07:30");
+        query.setSize(2);
+
+        List<Integer> seen = new ArrayList<>();
+        CatalogPage page;
+        do {
+            page = snapshot.page(query);
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            query.setCursor(page.getNextCursor());
+        } while (page.isHasMore());
+        assertEquals(List.of(1, 2, 4, 5, 7, 8), seen);
+
+        query.setCursor(null);
+        query.setAt("23:00");
+        query.setMinPrice(1);
+        query.setSize(10);
+        assertEquals(List.of(1, 3, 7, 9), snapshot.page(query).getItems().stream().map(food::getId).toList());
+    }
+
+    @Test
+    @DisplayName("测试availableNow固定为当前时段，无效时刻不过滤")
+    public void testQuerySlot() {
+        CatalogQuery query = new CatalogQuery();
+        assertEquals(-1, query.availabilitySlot());
+
+        query.setAvailableNow(true);
+        int slot = query.pinAvailabilitySlot();
+        assertTrue(slot >= 0 && slot < AvailabilityIndex.SLOTS);
+        assertEquals(AvailabilityIndex.startOf(slot).toString(), query.getAt());
+
+        query.setAt("25:99");
+        assertEquals(-1, query.availabilitySlot());
+    }
+
+    /**
+     * id从1开始，按 (id - 1) % 3 依次为全天、早餐6:00-10:00、夜宵22:00-2:00；价格为 id % 2
+     */
+    private static List<food> menu(int n) {
+        List<food> foods = new ArrayList<>();
+        for (int id = 1; id <= n; id++) {
+            food item = new food();
+            item.setId(id);
+            item.setName("菜" + id);
+            item.setPrice(Money.ofYuan(id % 2));
+            switch ((id - 1) % 3) {
+                case 1 -> {
+                    item.setAvailableFrom(6 * 60);
+                    item.setAvailableTo(10 * 60);
+                }
+                case 2 -> {
+                    item.setAvailableFrom(22 * 60);
+                    item.setAvailableTo(2 * 60);
+                }
+                default -> {
+                }
+            }
+            foods.add(item);
+        }
+        return foods;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.Mapper.foodMapper;
+import com.example.demo1.config.MockRedisConfig;
+import com.example.demo1.service.CatalogService;
+import com.example.demo1.service.impl.CatalogServiceImpl;
+import com.example.demo1.service.impl.TrendingServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 在同一JVM中启动两个应用上下文模拟两个节点，通过MockRedisConfig的进程内发布订阅同步目录版本
+ */
+public class CatalogChangeBusTest {
+
+    private AnnotationConfigApplicationContext nodeA;
+    private AnnotationConfigApplicationContext nodeB;
+
+    private foodMapper mapperA;
+    private foodMapper mapperB;
+
+    @BeforeEach
+    public void setUp() {
+        mapperA = mock(foodMapper.class);
+        mapperB = mock(foodMapper.class);
+        nodeA = startNode(mapperA);
+        nodeB = startNode(mapperB);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    @DisplayName("测试一个节点变更目录后另一个节点收到广播并重建快照")
+    public void testChangePropagatesToOtherNode() throws Exception {
+        when(mapperA.findAll()).thenReturn(List.of(food(1, 28)));
+        when(mapperB.findAll()).thenReturn(List.of(food(1, 28))).thenReturn(List.of(food(1, 30)));
+
+        CatalogService serviceA = nodeA.getBean(CatalogService.class);
+        CatalogService serviceB = nodeB.getBean(CatalogService.class);
+        assertEquals(28, serviceB.findById(1).getPrice());
+
+        long version = serviceA.markChanged();
+
+        // 消息异步投递，等待节点B完成重建并记录生效
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Long.valueOf(1).equals(serviceB.stats().get("changesApplied"))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(version, serviceB.version());
+        assertEquals(30, serviceB.findById(1).getPrice());
+
+        Map<String, Object> statsB = serviceB.stats();
+        assertEquals(1L, statsB.get("changesApplied"));
+        assertTrue((Long) statsB.get("maxPropagationLagMillis") >= 0);
+        // 发布方不处理自己的消息
+        assertEquals(0L, serviceA.stats().get("changesReceived"));
+    }
+
+    @Test
+    @DisplayName("测试变更影响的餐厅随广播传递，其他节点只推进这些餐厅的菜单版本")
+    public void testRestaurantScopePropagates() throws Exception {
+        CatalogService serviceA = nodeA.getBean(CatalogService.class);
+        CatalogService serviceB = nodeB.getBean(CatalogService.class);
+        long before = serviceB.restaurantVersion(1);
+
+        long version = serviceA.markChanged(List.of(2, 3));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (serviceB.version() != version && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(version, serviceB.restaurantVersion(2));
+        assertEquals(version, serviceB.restaurantVersion(3));
+        assertEquals(before, serviceB.restaurantVersion(1));
+    }
+
+    @Test
+    @DisplayName("测试新启动的节点采用全局版本")
+    public void testNewNodeAdoptsGlobalVersion() {
+        long version = nodeA.getBean(CatalogService.class).markChanged();
+
+        AnnotationConfigApplicationContext nodeC = startNode(mock(foodMapper.class));
+        try {
+            assertEquals(version, nodeC.getBean(CatalogService.class).version());
+        } finally {
+            nodeC.close();
+        }
+    }
+
+    private static AnnotationConfigApplicationContext startNode(foodMapper mapper) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("test", Map.of("spring.data.redis.enabled", "false")));
+        context.registerBean(foodMapper.class, () -> mapper);
+        context.register(MockRedisConfig.class, CatalogChangeBus.class, CatalogServiceImpl.class,
+                TrendingServiceImpl.class);
+        context.refresh();
+        return context;
+    }
+
+    private static food food(int id, int price) {
+        food item = new food();
+        item.setId(id);
+        item.setName("菜品" + id);
+        item.setPrice(price);
+        item.setLevel(3);
+        return item;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogJsonCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CatalogJsonCache catalogJsonCache;
+
+    @BeforeEach
+    public void setUp() {
+        catalogJsonCache = new CatalogJsonCache();
+        ReflectionTestUtils.setField(catalogJsonCache, "objectMapper", objectMapper);
+    }
+
+    @Test
+    @DisplayName("测试按字段掩码只输出选定字段")
+    public void testFieldSelection() throws Exception {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(3, List.of(food(1, "宫保鸡丁", 28), food(2, "麻婆豆腐", 22)));
+        int mask = FoodField.parseMask("id, name,unknown");
+
+        JsonNode root = objectMapper.readTree(catalogJsonCache.fullMenu(snapshot, mask).raw());
+        assertEquals(3, root.get("version").asLong());
+        assertEquals(2, root.get("items").size());
+        JsonNode first = root.get("items").get(0);
+        assertEquals(1, first.get("id").asInt());
+        assertEquals("宫保鸡丁", first.get("name").asText());
+        assertFalse(first.has("price"));
+        assertFalse(first.has("info"));
+        assertFalse(root.has("nextCursor"));
+    }
+
+    @Test
+    @DisplayName("测试同一版本复用序列化结果，版本变化后重新序列化")
+    public void testCachedPerVersion() throws Exception {
+        List<food> foods = List.of(food(1, "宫保鸡丁", 28));
+        CatalogJsonCache.MenuJson first = catalogJsonCache.fullMenu(CatalogSnapshot.of(1, foods), FoodField.ALL);
+        assertSame(first, catalogJsonCache.fullMenu(CatalogSnapshot.of(1, foods), FoodField.ALL));
+
+        CatalogJsonCache.MenuJson next = catalogJsonCache.fullMenu(CatalogSnapshot.of(2, foods), FoodField.ALL);
+        assertNotSame(first, next);
+        assertEquals(2, objectMapper.readTree(next.raw()).get("version").asLong());
+
+        // gzip结果解压后与原始字节一致
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(next.gzip()))) {
+            assertArrayEquals(next.raw(), in.readAllBytes());
+        }
+        assertEquals(1L, catalogJsonCache.stats().get("jsonHits"));
+        assertEquals(2L, catalogJsonCache.stats().get("jsonSerializations"));
+    }
+
+    @Test
+    @DisplayName("测试旧快照晚到时按自己的版本输出但不缓存，也不替换新版本的缓存")
+    public void testStaleSnapshotNotCached() throws Exception {
+        List<food> foods = List.of(food(1, "宫保鸡丁", 28));
+        CatalogJsonCache.MenuJson current = catalogJsonCache.fullMenu(CatalogSnapshot.of(2, foods), FoodField.ALL);
+
+        CatalogJsonCache.MenuJson stale = catalogJsonCache.fullMenu(CatalogSnapshot.of(1, foods), FoodField.ALL);
+        assertEquals(1, objectMapper.readTree(stale.raw()).get("version").asLong());
+        assertNotSame(stale, catalogJsonCache.fullMenu(CatalogSnapshot.of(1, foods), FoodField.ALL));
+
+        assertSame(current, catalogJsonCache.fullMenu(CatalogSnapshot.of(2, foods), FoodField.ALL));
+        assertEquals(1L, catalogJsonCache.stats().get("jsonHits"));
+        assertEquals(3L, catalogJsonCache.stats().get("jsonSerializations"));
+    }
+
+    @Test
+    @DisplayName("测试字段参数为空或全部无效时输出全部字段")
+    public void testParseMaskDefaults() {
+        assertEquals(FoodField.ALL, FoodField.parseMask(null));
+        assertEquals(FoodField.ALL, FoodField.parseMask(" "));
+        assertEquals(FoodField.ALL, FoodField.parseMask("foo,bar"));
+        assertEquals(FoodField.PRICE.bit(), FoodField.parseMask("PRICE"));
+    }
+
+    private static food food(int id, String name, int price) {
+        food item = new food();
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(price);
+        item.setLevel(3);
+        item.setInfo(name + "的介绍");
+        return item;
+    }
+}
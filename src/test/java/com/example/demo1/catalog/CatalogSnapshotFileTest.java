@@ -0,0 +1,72 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("测试快照文件写入后按原样读回，包括空值与中文")
+    public void testRoundTrip() throws Exception {
+        food kungPao = food(1, "宫保鸡丁", "经典川菜，口感麻辣鲜香");
+        kungPao.setStock(20);
+        kungPao.setAvailableFrom(22 * 60);
+        kungPao.setAvailableTo(2 * 60);
+        food noInfo = food(2, "麻婆豆腐", null);
+        CatalogSnapshot snap = CatalogSnapshot.of(7, List.of(noInfo, kungPao));
+
+        Path file = dir.resolve("catalog.snap");
+        CatalogSnapshotFile.write(file, snap);
+        CatalogSnapshotFile.Contents contents = CatalogSnapshotFile.read(file);
+
+        assertNotNull(contents);
+        assertEquals(7, contents.version());
+        assertTrue(contents.savedAt() > 0);
+        assertEquals(snap.getFoods(), contents.foods());
+        assertNull(contents.foods().get(1).getInfo());
+        assertNull(contents.foods().get(1).getStock());
+    }
+
+    @Test
+    @DisplayName("测试文件损坏、截断或不存在时返回null")
+    public void testRejectsCorruptFiles() throws Exception {
+        Path file = dir.resolve("catalog.snap");
+        assertNull(CatalogSnapshotFile.read(file));
+
+        CatalogSnapshotFile.write(file, CatalogSnapshot.of(3, List.of(food(1, "宫保鸡丁", "川菜"))));
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] flipped = bytes.clone();
+        flipped[flipped.length - 1] ^= 1;
+        Files.write(file, flipped);
+        assertNull(CatalogSnapshotFile.read(file));
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertNull(CatalogSnapshotFile.read(file));
+
+        Files.write(file, "not a snapshot".getBytes());
+        assertNull(CatalogSnapshotFile.read(file));
+    }
+
+    private static food food(int id, String name, String info) {
+        food item = new food();
+        item.setId(id);
+        item.setName(name);
+        item.setInfo(info);
+        item.setPrice(20 + id);
+        item.setLevel(3);
+        return item;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotTest {
+
+    @Test
+    @DisplayName("测试按id游标分页遍历全部菜品")
+    public void testPageById() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(1, menu(10));
+        CatalogQuery query = new CatalogQuery();
+        query.setSize(4);
+
+        List<Integer> seen = collect(snapshot, query);
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), seen);
+    }
+
+    @Test
+    @DisplayName("测试按价格降序分页，价格相同按id排序且不重复不遗漏")
+    public void testPageByPriceDescWithTies() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(1, menu(10));
+        CatalogQuery query = new CatalogQuery();
+        query.setSize(3);
+        query.setSort("price_desc");
+
+        // 价格为 (id % 3) * 10：先是价格20的2,5,8，再是价格10的1,4,7,10，最后价格0的3,6,9
+        assertEquals(List.of(2, 5, 8, 1, 4, 7, 10, 3, 6, 9), collect(snapshot, query));
+    }
+
+    @Test
+    @DisplayName("测试过滤条件与游标组合")
+    public void testPageWithFilter() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(1, menu(10));
+        CatalogQuery query = new CatalogQuery();
+        query.setSize(2);
+        query.setMinPrice(10);
+        query.setMinLevel(2);
+
+        // 价格>=10 排除3,6,9；等级 (id % 5) + 1 >= 2 排除5,10
+        assertEquals(List.of(1, 2, 4, 7, 8), collect(snapshot, query));
+    }
+
+    @Test
+    @DisplayName("测试游标对应的菜品被删除后仍能继续翻页")
+    public void testCursorSurvivesDeletedRow() {
+        CatalogQuery query = new CatalogQuery();
+        query.setSize(3);
+        query.setSort("price");
+        CatalogPage first = CatalogSnapshot.of(1, menu(10)).page(query);
+
+        List<food> rows = menu(10);
+        rows.removeIf(item -> item.getId() == first.getItems().get(2).getId());
+        query.setCursor(first.getNextCursor());
+        CatalogPage second = CatalogSnapshot.of(2, rows).page(query);
+
+        // 价格升序：3,6,9 | 1,4,7 ...
+        assertEquals(List.of(3, 6, 9), ids(first.getItems()));
+        assertEquals(List.of(1, 4, 7), ids(second.getItems()));
+    }
+
+    private static List<Integer> collect(CatalogSnapshot snapshot, CatalogQuery query) {
+        List<Integer> seen = new ArrayList<>();
+        query.setCursor(null);
+        while (true) {
+            CatalogPage page = snapshot.page(query);
+            seen.addAll(ids(page.getItems()));
+            if (!page.isHasMore()) {
+                return seen;
+            }
+            query.setCursor(page.getNextCursor());
+        }
+    }
+
+    private static List<Integer> ids(List<food> items) {
+        List<Integer> result = new ArrayList<>();
+        for (food item : items) {
+            result.add(item.getId());
+        }
+        return result;
+    }
+
+    private static List<food> menu(int count) {
+        List<food> rows = new ArrayList<>();
+        for (int id = count; id >= 1; id--) {
+            food item = new food();
+            item.setId(id);
+            item.setName("菜品" + id);
+            item.setPrice(Money.ofYuan((id % 3) * 10));
+            item.setLevel(id % 5 + 1);
+            rows.add(item);
+        }
+        return rows;
+    }
+}
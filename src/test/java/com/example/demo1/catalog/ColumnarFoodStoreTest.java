@@ -0,0 +1,81 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.dto.CatalogQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarFoodStoreTest {
+
+    @Test
+    @DisplayName("测试列式存储的视图与原始菜品逐字段相等，包括空值与中文")
+    public void testViewsMatchRows() {
+        List<food> rows = menu(100);
+        rows.get(3).setInfo(null);
+        rows.get(5).setStock(12);
+        rows.get(7).setAvailableFrom(6 * 60);
+        rows.get(7).setAvailableTo(10 * 60);
+
+        ColumnarFoodStore store = ColumnarFoodStore.of(rows);
+
+        assertEquals(rows.size(), store.size());
+        assertEquals(rows, store);
+        assertNull(store.get(3).getInfo());
+        assertEquals(12, store.get(5).getStock());
+        assertNull(store.get(6).getStock());
+        assertEquals(600, store.get(7).getAvailableTo());
+        assertTrue(store.nameEquals(0, "宫保鸡丁1"));
+        assertFalse(store.nameEquals(0, "宫保鸡丁10"));
+        assertTrue(store.offHeapBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("测试列式存储中的菜品只读")
+    public void testViewsAreReadOnly() {
+        ColumnarFoodStore store = ColumnarFoodStore.of(menu(2));
+        assertThrows(UnsupportedOperationException.class, () -> store.get(0).setPrice(1));
+        assertThrows(UnsupportedOperationException.class, () -> store.add(new food()));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(2));
+    }
+
+    @Test
+    @DisplayName("测试列式快照的按id、按菜名查找和分页结果与堆模式一致")
+    public void testColumnarSnapshotMatchesHeap() {
+        List<food> rows = menu(50);
+        // 同名菜品返回id最小的一条
+        rows.get(30).setName("宫保鸡丁10");
+        CatalogSnapshot heap = CatalogSnapshot.of(1, rows);
+        CatalogSnapshot columnar = CatalogSnapshot.of(1, rows, true);
+
+        assertNotNull(columnar.getColumns());
+        assertEquals(heap.findById(17), columnar.findById(17));
+        assertNull(columnar.findById(999));
+        assertEquals(10, columnar.findByName("宫保鸡丁10").getId());
+        assertNull(columnar.findByName("不存在的菜"));
+
+        CatalogQuery query = new CatalogQuery();
+        query.setSort("price_desc");
+        query.setMinLevel(2);
+        query.setSize(7);
+        assertEquals(heap.page(query).getItems(), columnar.page(query).getItems());
+    }
+
+    private static List<food> menu(int n) {
+        List<food> rows = new ArrayList<>();
+        for (int id = 1; id <= n; id++) {
+            food item = new food();
+            item.setId(id);
+            item.setName("宫保鸡丁" + id);
+            item.setInfo("经典川菜，口感麻辣鲜香 #" + id);
+            item.setPrice(10 + id % 7);
+            item.setLevel(1 + id % 5);
+            rows.add(item);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo1.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CooccurrenceMatrixTest {
+
+    @Test
+    @DisplayName("测试同单次数对称累加，按次数降序、id升序返回搭配")
+    public void testCompanions() {
+        CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+        matrix.addOrder(new int[]{1, 9});
+        matrix.addOrder(new int[]{1, 9, 5});
+        matrix.addOrder(new int[]{1, 3});
+        matrix.addOrder(new int[]{5, 1, 1});
+
+        List<CooccurrenceMatrix.Companion> companions = matrix.companions(1, 10);
+        assertEquals(List.of(
+                new CooccurrenceMatrix.Companion(5, 2),
+                new CooccurrenceMatrix.Companion(9, 2),
+                new CooccurrenceMatrix.Companion(3, 1)), companions);
+        assertEquals(List.of(new CooccurrenceMatrix.Companion(1, 2)), matrix.companions(9, 1));
+        assertTrue(matrix.companions(42, 5).isEmpty());
+        assertEquals(4, matrix.orderCount());
+    }
+
+    @Test
+    @DisplayName("测试单菜订单不计入，大量菜品时哈希表扩容后计数不丢失")
+    public void testGrowth() {
+        CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+        matrix.addOrder(new int[]{7});
+        assertEquals(0, matrix.orderCount());
+
+        for (int id = 1; id <= 5000; id++) {
+            matrix.addOrder(new int[]{0, id});
+            if (id % 2 == 0) {
+                matrix.addOrder(new int[]{0, id});
+            }
+        }
+        List<CooccurrenceMatrix.Companion> top = matrix.companions(0, 3);
+        assertEquals(List.of(
+                new CooccurrenceMatrix.Companion(2, 2),
+                new CooccurrenceMatrix.Companion(4, 2),
+                new CooccurrenceMatrix.Companion(6, 2)), top);
+        assertEquals(5000, matrix.companions(0, Integer.MAX_VALUE).size());
+        assertEquals(2 * 5000, matrix.pairCount());
+    }
+
+    @Test
+    @DisplayName("测试超大订单按订单中的顺序截取菜品，不偏向id小的菜品")
+    public void testLargeOrderTruncation() {
+        CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+        int[] ids = new int[CooccurrenceMatrix.MAX_ITEMS_PER_ORDER + 10];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1000 - i;
+        }
+        matrix.addOrder(ids);
+
+        List<CooccurrenceMatrix.Companion> companions = matrix.companions(1000, Integer.MAX_VALUE);
+        assertEquals(CooccurrenceMatrix.MAX_ITEMS_PER_ORDER - 1, companions.size());
+        assertEquals(1000 - CooccurrenceMatrix.MAX_ITEMS_PER_ORDER + 1, companions.get(0).foodId());
+        assertTrue(matrix.companions(ids[ids.length - 1], 1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试IntIntHashMap累加与负数键")
+    public void testIntIntHashMap() {
+        IntIntHashMap map = new IntIntHashMap();
+        for (int i = -1000; i < 1000; i++) {
+            map.addTo(i, i + 2000);
+        }
+        map.addTo(-5, 10);
+        assertEquals(2000, map.size());
+        assertEquals(2005, map.get(-5));
+        assertEquals(2999, map.get(999));
+        assertEquals(0, map.get(5000));
+        assertThrows(IllegalArgumentException.class, () -> map.addTo(Integer.MIN_VALUE, 1));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DishSearchIndexTest {
+
+    @Test
+    @DisplayName("测试单字和双字查询及菜名优先排序")
+    public void testSearchRanking() {
+        DishSearchIndex index = new DishSearchIndex();
+        index.sync(CatalogSnapshot.empty(), CatalogSnapshot.of(1, List.of(
+                food(1, "宫保鸡丁", "经典川菜，口感麻辣鲜香"),
+                food(2, "麻婆豆腐", "四川传统名菜，麻辣可口"),
+                food(3, "清蒸鲈鱼", "清淡爽口"),
+                food(4, "白切鸡", "皮爽肉滑"))));
+
+        int[] chicken = index.search("鸡", 10);
+        assertEquals(2, chicken.length);
+        // "白切鸡"文档更短，BM25得分更高
+        assertEquals(4, chicken[0]);
+
+        int[] spicy = index.search("麻辣", 10);
+        Arrays.sort(spicy);
+        assertArrayEquals(new int[]{1, 2}, spicy);
+        assertEquals(0, index.search("麻鸡", 10).length);
+        assertEquals(1, index.search("鸡", 1).length);
+    }
+
+    @Test
+    @DisplayName("测试快照切换时增量更新索引")
+    public void testIncrementalSync() {
+        DishSearchIndex index = new DishSearchIndex();
+        CatalogSnapshot v1 = CatalogSnapshot.of(1, List.of(
+                food(1, "宫保鸡丁", "麻辣"),
+                food(2, "红烧肉", "肥而不腻")));
+        index.sync(CatalogSnapshot.empty(), v1);
+
+        List<food> rows = new ArrayList<>();
+        rows.add(food(1, "宫保虾球", "麻辣"));
+        rows.add(food(3, "酸辣汤", "开胃"));
+        index.sync(v1, CatalogSnapshot.of(2, rows));
+
+        assertEquals(2, index.size());
+        assertEquals(0, index.search("鸡丁", 10).length);
+        assertArrayEquals(new int[]{1}, index.search("虾球", 10));
+        assertEquals(0, index.search("红烧", 10).length);
+        assertArrayEquals(new int[]{3}, index.search("酸辣", 10));
+    }
+
+    private static food food(int id, String name, String info) {
+        food item = new food();
+        item.setId(id);
+        item.setName(name);
+        item.setInfo(info);
+        return item;
+    }
+}
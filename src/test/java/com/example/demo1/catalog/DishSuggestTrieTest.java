@@ -0,0 +1,48 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.Entity.food;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DishSuggestTrieTest {
+
+    private final DishSuggestTrie trie = DishSuggestTrie.build(List.of(
+            food(1, "宫保鸡丁", 3),
+            food(2, "麻婆豆腐", 2),
+            food(3, "红烧肉", 3),
+            food(4, "红烧排骨", 5),
+            food(5, "鸡蛋汤", 4)), food::getLevel, 10);
+
+    @Test
+    @DisplayName("测试汉字前缀按热度排序")
+    public void testHanziPrefix() {
+        assertArrayEquals(new int[]{4, 3}, trie.suggest("红烧", 10));
+        assertArrayEquals(new int[]{1}, trie.suggest("宫保鸡", 10));
+        assertArrayEquals(new int[]{4}, trie.suggest("红", 1));
+        assertEquals(0, trie.suggest("水煮", 10).length);
+        assertArrayEquals(new int[]{4, 3}, trie.suggest("红烧", Integer.MAX_VALUE), "limit很大时不溢出");
+        assertEquals(0, trie.suggest("", 10).length);
+    }
+
+    @Test
+    @DisplayName("测试全拼和拼音首字母前缀")
+    public void testPinyinPrefix() {
+        assertArrayEquals(new int[]{4, 3}, trie.suggest("hongshao", 10));
+        assertArrayEquals(new int[]{4, 3}, trie.suggest("HS", 10));
+        assertArrayEquals(new int[]{1}, trie.suggest("gongbao", 10));
+        assertArrayEquals(new int[]{5}, trie.suggest("jd", 10));
+        assertArrayEquals(new int[]{2}, trie.suggest("mp", 10));
+    }
+
+    private static food food(int id, String name, int level) {
+        food item = new food();
+        item.setId(id);
+        item.setName(name);
+        item.setLevel(level);
+        return item;
+    }
+}
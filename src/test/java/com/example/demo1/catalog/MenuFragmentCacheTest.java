@@ -0,0 +1,86 @@
+package com.example.demo1.catalog;
+
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import com.example.demo1.service.ImageVariantService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MenuFragmentCacheTest {
+
+    @Mock
+    private ITemplateEngine templateEngine;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    @InjectMocks
+    private MenuFragmentCache menuFragmentCache;
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        when(templateEngine.process(eq("menu-grid"), anySet(), any(IContext.class)))
+                .thenAnswer(invocation -> "<div>" + renders.incrementAndGet() + "</div>");
+    }
+
+    @Test
+    @DisplayName("测试版本只前进：旧快照的请求不会清掉新版本的片段，也不会被缓存")
+    public void testVersionOnlyAdvances() {
+        String v2 = menuFragmentCache.render(page(2), query(null), Locale.CHINA);
+        assertEquals(v2, menuFragmentCache.render(page(2), query(null), Locale.CHINA));
+
+        menuFragmentCache.render(page(1), query(null), Locale.CHINA);
+        menuFragmentCache.render(page(1), query(null), Locale.CHINA);
+        assertEquals(3, renders.get());
+
+        assertEquals(v2, menuFragmentCache.render(page(2), query(null), Locale.CHINA));
+        assertEquals(3, renders.get());
+
+        menuFragmentCache.render(page(3), query(null), Locale.CHINA);
+        assertEquals(1, menuFragmentCache.stats().get("fragmentEntries"));
+    }
+
+    @Test
+    @DisplayName("测试分区写满后淘汰最早写入的片段，新片段仍会缓存")
+    public void testEvictsWhenFull() {
+        int max = 512;
+        for (int i = 0; i <= max; i++) {
+            menuFragmentCache.render(page(1), query(String.valueOf(i)), Locale.CHINA);
+        }
+        assertEquals(max, menuFragmentCache.stats().get("fragmentEntries"));
+        assertEquals(1L, menuFragmentCache.stats().get("fragmentEvictions"));
+
+        // 最后写入的片段命中，最早写入的已被淘汰需要重新渲染
+        menuFragmentCache.render(page(1), query(String.valueOf(max)), Locale.CHINA);
+        assertEquals(max + 1, renders.get());
+        menuFragmentCache.render(page(1), query("0"), Locale.CHINA);
+        assertEquals(max + 2, renders.get());
+    }
+
+    private static CatalogPage page(long version) {
+        return new CatalogPage(List.of(), null, false, version);
+    }
+
+    private static CatalogQuery query(String cursor) {
+        CatalogQuery query = new CatalogQuery();
+        query.setCursor(cursor);
+        return query;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo1.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    @Test
+    @DisplayName("测试按元解析金额为分，超过两位小数时报错")
+    public void testParse() {
+        assertEquals(2800, Money.parse("28"));
+        assertEquals(2850, Money.parse(" 28.5 "));
+        assertEquals(1, Money.parse("0.01"));
+        assertEquals(2800, Money.parse("28.000"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("28.125"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("abc"));
+    }
+
+    @Test
+    @DisplayName("测试分格式化为两位小数的元")
+    public void testFormat() {
+        assertEquals("28.00", Money.format(2800));
+        assertEquals("28.05", Money.format(2805));
+        assertEquals("0.10", Money.format(10));
+        assertEquals("-1.50", Money.format(-150));
+        assertEquals(Money.format(Money.parse("19.99") * 3), "59.97", "按分累加没有浮点误差");
+    }
+}
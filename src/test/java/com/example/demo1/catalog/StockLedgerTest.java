@@ -0,0 +1,96 @@
+package com.example.demo1.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockLedgerTest {
+
+    @Test
+    @DisplayName("测试预占、归还、售出与不限量菜品")
+    public void testReserveReleaseCommit() {
+        StockLedger ledger = new StockLedger();
+        ledger.sync(3, 5);
+        ledger.sync(4, null);
+
+        assertTrue(ledger.reserve(3, 3));
+        assertFalse(ledger.reserve(3, 3));
+        assertEquals(2, ledger.available(3));
+
+        ledger.release(3, 1);
+        assertEquals(3, ledger.available(3));
+        ledger.commit(3, 2);
+        assertEquals(0, ledger.reserved(3));
+        assertEquals(2, ledger.pendingSold(3));
+        assertEquals(Map.of(3, 2), ledger.pendingSold());
+
+        assertTrue(ledger.reserve(4, 1000));
+        assertEquals(StockLedger.UNLIMITED, ledger.available(4));
+        assertEquals(StockLedger.UNLIMITED, ledger.available(99));
+    }
+
+    @Test
+    @DisplayName("测试数据库库存变化时扣除预占与待写回重新计算，写回后不重复扣减")
+    public void testSyncAndWriteBack() {
+        StockLedger ledger = new StockLedger();
+        ledger.sync(1, 10);
+        ledger.reserve(1, 4);
+        ledger.commit(1, 3);
+
+        // 人工把库存改为20：20 - 待写回3 - 预占1
+        ledger.sync(1, 20);
+        assertEquals(16, ledger.available(1));
+
+        // 写回后数据库为17，同步值相同，不再重算
+        ledger.written(1, 3);
+        ledger.sync(1, 17);
+        assertEquals(16, ledger.available(1));
+        assertEquals(0, ledger.pendingSold(1));
+    }
+
+    @Test
+    @DisplayName("测试单个热门菜品高并发预占不会超卖")
+    public void testNoOversellUnderContention() throws Exception {
+        StockLedger ledger = new StockLedger();
+        ledger.sync(7, 1000);
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                int won = 0;
+                for (int i = 0; i < 500; i++) {
+                    if (ledger.reserve(7, 1)) {
+                        won++;
+                        if (i % 5 == 0) {
+                            ledger.release(7, 1);
+                            won--;
+                        }
+                    }
+                }
+                return won;
+            }));
+        }
+        start.countDown();
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get();
+        }
+        pool.shutdown();
+
+        assertEquals(1000, total);
+        assertEquals(0, ledger.available(7));
+        assertEquals(1000, ledger.reserved(7));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo1.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrendingSketchTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    @DisplayName("测试估计值不低于真实次数且误差在理论范围内")
+    public void testEstimateBounds() {
+        TrendingSketch sketch = new TrendingSketch(4, 2048, 12, 5 * MINUTE);
+        long now = 1_000 * MINUTE;
+        int total = 0;
+        // 1000道菜，第i道菜加购 i % 50 次
+        for (int id = 1; id <= 1000; id++) {
+            for (int k = 0; k < id % 50; k++) {
+                sketch.add(id, now);
+                total++;
+            }
+        }
+        long maxError = (long) Math.ceil(Math.E / 2048 * total);
+        for (int id = 1; id <= 1000; id++) {
+            long estimate = sketch.estimate(id, now);
+            assertTrue(estimate >= id % 50, "估计值不应低于真实次数");
+            assertTrue(estimate - id % 50 <= maxError, "id " + id + " 误差过大: " + estimate);
+        }
+    }
+
+    @Test
+    @DisplayName("测试滑出时间窗口的计数不再计入")
+    public void testSlidingWindow() {
+        TrendingSketch sketch = new TrendingSketch(4, 256, 6, 10 * MINUTE);
+        long start = 600 * MINUTE;
+        for (int i = 0; i < 5; i++) {
+            sketch.add(7, start);
+        }
+        sketch.add(7, start + 30 * MINUTE);
+
+        assertEquals(6, sketch.estimate(7, start + 50 * MINUTE));
+        // 第一个桶已过窗口（60分钟），只剩30分钟时的那一次
+        assertEquals(1, sketch.estimate(7, start + 65 * MINUTE));
+        assertEquals(0, sketch.estimate(7, start + 100 * MINUTE));
+
+        // 桶被新时间片复用时先清零
+        sketch.add(8, start + 60 * MINUTE);
+        assertEquals(1, sketch.estimate(8, start + 60 * MINUTE));
+        assertEquals(1, sketch.estimate(7, start + 60 * MINUTE));
+    }
+
+    @Test
+    @DisplayName("测试多线程并发加购不丢失计数")
+    public void testConcurrentAdds() throws Exception {
+        TrendingSketch sketch = new TrendingSketch(4, 1024, 12, 5 * MINUTE);
+        long now = 1_000 * MINUTE;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        sketch.add(42, now);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(80_000, sketch.estimate(42, now));
+    }
+
+    @Test
+    @DisplayName("测试多线程同时换入新时间桶时不丢失新时间片的计数")
+    public void testConcurrentBucketRollover() throws Exception {
+        TrendingSketch sketch = new TrendingSketch(4, 256, 4, MINUTE);
+        long start = 1_000 * MINUTE;
+        sketch.add(42, start);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            // 每轮所有线程在同一个新时间片写入，复用环上的同一位置
+            for (int round = 1; round <= 20; round++) {
+                long now = start + round * 4 * MINUTE;
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    futures.add(pool.submit(() -> {
+                        for (int i = 0; i < 500; i++) {
+                            sketch.add(42, now);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                assertEquals(4_000, sketch.estimate(42, now), "第" + round + "轮");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo1.datasource;
+
+import com.example.demo1.Mapper.foodMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private ReplicaLagMonitor monitor;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        // 两个独立的H2库分别充当主库和副本，同名表中放不同的数据以区分查询落在哪个库
+        DataSource primary = h2("rw_primary");
+        DataSource replica = h2("rw_replica");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+        for (JdbcTemplate template : new JdbcTemplate[]{primaryJdbc, replicaJdbc}) {
+            template.execute("DROP TABLE IF EXISTS replica_heartbeat");
+            template.execute("DROP TABLE IF EXISTS source");
+            template.execute("CREATE TABLE source (name VARCHAR(16))");
+        }
+        primaryJdbc.update("INSERT INTO source VALUES ('primary')");
+        replicaJdbc.update("INSERT INTO source VALUES ('replica')");
+
+        monitor = new ReplicaLagMonitor(primary, replica, 2000);
+        routing = new ReadWriteRoutingDataSource(primary, replica, monitor);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @Test
+    @DisplayName("测试副本收到心跳后只读事务读副本，读写事务读主库")
+    public void testReadOnlyTransactionUsesReplica() {
+        replicateHeartbeat(System.currentTimeMillis());
+        monitor.check();
+        assertTrue(monitor.isReplicaUsable());
+
+        assertEquals("replica", inTransaction(true));
+        assertEquals("primary", inTransaction(false));
+        assertEquals("primary", jdbc.queryForObject("SELECT name FROM source", String.class));
+        assertEquals(1L, routing.stats().get("replicaReads"));
+    }
+
+    @Test
+    @DisplayName("测试副本没有心跳或延迟过大时只读查询回到主库")
+    public void testFallbackOnLag() {
+        monitor.check();
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals("primary", inTransaction(true));
+
+        replicateHeartbeat(System.currentTimeMillis() - 60_000);
+        monitor.check();
+        assertFalse(monitor.isReplicaUsable());
+        assertTrue(monitor.lagMillis() >= 60_000);
+        assertEquals("primary", inTransaction(true));
+        assertEquals(2L, routing.stats().get("replicaFallbackReads"));
+
+        // 主库写入的心跳复制过来后恢复
+        replicaJdbc.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1",
+                primaryJdbc.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class));
+        monitor.check();
+        assertTrue(monitor.isReplicaUsable());
+    }
+
+    @Test
+    @DisplayName("测试@ReadOnlyQuery方法只在读写事务之外路由到副本")
+    public void testReadOnlyQueryAnnotation() {
+        replicateHeartbeat(System.currentTimeMillis());
+        monitor.check();
+
+        ProxyFactory factory = new ProxyFactory(new SourceQueries() {
+            @Override
+            public String annotated() {
+                return jdbc.queryForObject("SELECT name FROM source", String.class);
+            }
+
+            @Override
+            public String plain() {
+                return jdbc.queryForObject("SELECT name FROM source", String.class);
+            }
+        });
+        factory.addAdvisor(new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, ReadOnlyQuery.class, true),
+                ReadWriteRoutingDataSource.readOnlyInterceptor()));
+        SourceQueries queries = (SourceQueries) factory.getProxy();
+
+        assertEquals("replica", queries.annotated());
+        assertEquals("primary", queries.plain());
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        assertEquals("primary", readWrite.execute(status -> queries.annotated()));
+    }
+
+    @Test
+    @DisplayName("测试重建目录快照的查询不路由到副本")
+    public void testSnapshotLoadsReadPrimary() throws NoSuchMethodException {
+        // 快照按版本缓存，从延迟的副本读到的旧数据在整个版本内都不会被纠正
+        assertNull(foodMapper.class.getMethod("findAll").getAnnotation(ReadOnlyQuery.class));
+        assertNull(foodMapper.class.getMethod("findByRestaurant", int.class).getAnnotation(ReadOnlyQuery.class));
+    }
+
+    public interface SourceQueries {
+        @ReadOnlyQuery
+        String annotated();
+
+        String plain();
+    }
+
+    private String inTransaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbc.queryForObject("SELECT name FROM source", String.class));
+    }
+
+    /**
+     * 模拟心跳行复制到副本
+     */
+    private void replicateHeartbeat(long beatAt) {
+        replicaJdbc.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        replicaJdbc.update("MERGE INTO replica_heartbeat KEY (id) VALUES (1, ?)", beatAt);
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo1.service;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.Mapper.foodMapper;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.dto.ImportResult;
+import com.example.demo1.service.impl.CatalogImportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogImportServiceTest {
+
+    @Mock
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Mock
+    private SqlSession sqlSession;
+
+    @Mock
+    private foodMapper mapper;
+
+    @Mock
+    private CatalogService catalogService;
+
+    @InjectMocks
+    private CatalogImportServiceImpl catalogImportService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(catalogImportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(catalogImportService, "defaultBatchSize", 500);
+
+        food existing = new food();
+        existing.setId(1);
+        existing.setName("宫保鸡丁");
+        when(catalogService.snapshot()).thenReturn(CatalogSnapshot.of(1, List.of(existing)));
+        when(sqlSessionFactory.openSession(ExecutorType.BATCH, false)).thenReturn(sqlSession);
+        when(sqlSession.getMapper(foodMapper.class)).thenReturn(mapper);
+    }
+
+    @Test
+    @DisplayName("测试CSV按id或菜名区分更新与插入，按批次提交且只递增一次版本，价格由元换算为分")
+    public void testCsvUpsertInBatches() throws Exception {
+        when(catalogService.markChanged(anyCollection())).thenReturn(2L);
+        String csv = "\uFEFFid,name,info,price,level\n"
+                + "1,宫保鸡丁,\"经典川菜，微辣\",30,3\n"
+                + ",宫保鸡丁,换个描述,31,3\n"
+                + ",麻婆豆腐,\"豆腐\"\"嫩\"\"\",22.5,2\r\n"
+                + "9,清蒸鲈鱼,,35,4\n"
+                + ",,缺菜名,10,1\n"
+                + ",红烧肉,,abc,3\n";
+
+        ImportResult result = catalogImportService.importCsv(stream(csv), 2);
+
+        assertEquals(6, result.getRows());
+        assertEquals(2, result.getUpdated());
+        assertEquals(2, result.getInserted());
+        assertEquals(2, result.getSkipped());
+        assertEquals(2, result.getErrors().size());
+        assertEquals(2L, result.getVersion());
+
+        ArgumentCaptor<food> byId = ArgumentCaptor.forClass(food.class);
+        verify(mapper).updateById(byId.capture());
+        assertEquals("经典川菜，微辣", byId.getValue().getInfo());
+        assertEquals(3000, byId.getValue().getPrice());
+        verify(mapper).updateByName(any());
+        ArgumentCaptor<food> inserted = ArgumentCaptor.forClass(food.class);
+        verify(mapper).insert(inserted.capture());
+        assertEquals("豆腐\"嫩\"", inserted.getValue().getInfo());
+        assertEquals(2250, inserted.getValue().getPrice());
+        verify(mapper).insertWithId(any());
+
+        // 4行写入，每批2行
+        verify(sqlSession, times(2)).commit();
+        verify(catalogService, times(1)).markChanged(Set.of(1));
+    }
+
+    @Test
+    @DisplayName("测试菜名按餐厅区分：其他餐厅的同名菜品作为新菜插入，按菜名更新时带上餐厅")
+    public void testNamesScopedByRestaurant() throws Exception {
+        when(catalogService.markChanged(anyCollection())).thenReturn(2L);
+        String csv = "name,price,restaurant_id\n"
+                + "宫保鸡丁,30,2\n"
+                + "宫保鸡丁,31,2\n"
+                + "宫保鸡丁,32,\n"
+                + "麻婆豆腐,20,0\n";
+
+        ImportResult result = catalogImportService.importCsv(stream(csv), 0);
+
+        assertEquals(1, result.getInserted());
+        assertEquals(2, result.getUpdated());
+        assertEquals(1, result.getSkipped());
+        ArgumentCaptor<food> inserted = ArgumentCaptor.forClass(food.class);
+        verify(mapper).insert(inserted.capture());
+        assertEquals(2, inserted.getValue().getRestaurantId());
+        ArgumentCaptor<food> updated = ArgumentCaptor.forClass(food.class);
+        verify(mapper, times(2)).updateByName(updated.capture());
+        assertEquals(List.of(2, 1), updated.getAllValues().stream().map(food::getRestaurantId).toList());
+        // 只有写入过的餐厅需要重新加载
+        verify(catalogService).markChanged(Set.of(1, 2));
+    }
+
+    @Test
+    @DisplayName("测试JSON数组逐个对象导入，price与CSV一致以元填写，priceFen以分填写，同时出现或字段类型错误时只拒绝该行")
+    public void testJsonImport() throws Exception {
+        when(catalogService.markChanged(anyCollection())).thenReturn(2L);
+        String json = "[{\"name\":\"酸辣汤\",\"price\":18.5,\"level\":2},"
+                + "{\"id\":1,\"name\":\"宫保鸡丁\",\"priceFen\":2900,\"level\":3},"
+                + "{\"name\":\"红烧肉\",\"price\":38,\"priceFen\":3800},"
+                + "{\"name\":\"回锅肉\",\"priceFen\":32.5},"
+                + "{\"name\":\"鱼香肉丝\",\"price\":26,\"stock\":\"abc\"}]";
+
+        ImportResult result = catalogImportService.importJson(stream(json), 0);
+
+        assertEquals(5, result.getRows());
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(3, result.getSkipped());
+        ArgumentCaptor<food> inserted = ArgumentCaptor.forClass(food.class);
+        verify(mapper).insert(inserted.capture());
+        assertEquals(1850, inserted.getValue().getPrice());
+        ArgumentCaptor<food> updated = ArgumentCaptor.forClass(food.class);
+        verify(mapper).updateById(updated.capture());
+        assertEquals(2900, updated.getValue().getPrice());
+        verify(sqlSession, times(1)).commit();
+        verify(sqlSession, never()).rollback();
+    }
+
+    @Test
+    @DisplayName("测试没有有效数据时不递增目录版本")
+    public void testNoWritesKeepsVersion() throws Exception {
+        when(catalogService.version()).thenReturn(1L);
+
+        ImportResult result = catalogImportService.importCsv(stream("name,price\n,10\n"), 0);
+
+        assertEquals(1, result.getSkipped());
+        assertEquals(1L, result.getVersion());
+        verify(catalogService, never()).markChanged(anyCollection());
+        verify(sqlSession, never()).commit();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
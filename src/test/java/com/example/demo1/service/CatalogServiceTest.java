@@ -0,0 +1,197 @@
+package com.example.demo1.service;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.Mapper.foodMapper;
+import com.example.demo1.catalog.CatalogChangeBus;
+import com.example.demo1.catalog.CatalogChangedEvent;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.catalog.CatalogSnapshotFile;
+import com.example.demo1.service.impl.CatalogServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogServiceTest {
+
+    @Mock
+    private foodMapper foodMp;
+
+    @Mock
+    private CatalogChangeBus changeBus;
+
+    @Mock
+    private TrendingService trendingService;
+
+    @InjectMocks
+    private CatalogServiceImpl catalogService;
+
+    @Test
+    @DisplayName("测试快照加载后重复读取不再访问数据库")
+    public void testSnapshotServedFromMemory() {
+        when(foodMp.findAll()).thenReturn(menu(food(2, "麻婆豆腐", 22), food(1, "宫保鸡丁", 28)));
+
+        assertEquals("宫保鸡丁", catalogService.findById(1).getName());
+        assertEquals(2, catalogService.findByName("麻婆豆腐").getId());
+        assertNull(catalogService.findByName("不存在的菜"));
+
+        // 快照按id升序
+        List<food> all = catalogService.findAll();
+        assertEquals(1, all.get(0).getId());
+        assertThrows(UnsupportedOperationException.class, () -> all.add(food(3, "红烧肉", 30)));
+
+        verify(foodMp, times(1)).findAll();
+        assertEquals(1L, catalogService.stats().get("refreshes"));
+    }
+
+    @Test
+    @DisplayName("测试目录版本变化后原子替换快照")
+    public void testSnapshotSwappedOnVersionChange() {
+        when(foodMp.findAll())
+                .thenReturn(menu(food(1, "宫保鸡丁", 28)))
+                .thenReturn(menu(food(1, "宫保鸡丁", 30), food(2, "麻婆豆腐", 22)));
+
+        CatalogSnapshot first = catalogService.snapshot();
+        assertEquals(1, first.size());
+
+        long version = catalogService.markChanged();
+        CatalogSnapshot second = catalogService.snapshot();
+
+        assertEquals(version, second.getVersion());
+        assertEquals(2, second.size());
+        assertEquals(30, second.findById(1).getPrice());
+        // 旧快照保持不变，仍持有它的读取方不受影响
+        assertEquals(28, first.findById(1).getPrice());
+        verify(foodMp, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("测试刷新失败时继续使用旧快照")
+    public void testStaleSnapshotOnRefreshFailure() {
+        when(foodMp.findAll())
+                .thenReturn(menu(food(1, "宫保鸡丁", 28)))
+                .thenThrow(new RuntimeException("数据库不可用"));
+
+        CatalogSnapshot first = catalogService.snapshot();
+        catalogService.markChanged();
+
+        assertSame(first, catalogService.snapshot());
+        assertEquals(1L, catalogService.stats().get("refreshFailures"));
+    }
+
+    @Test
+    @DisplayName("测试餐厅菜单版本只随影响该餐厅或所有餐厅的变更前进")
+    public void testRestaurantVersion() {
+        assertEquals(2L, catalogService.markChanged(List.of(2)));
+        assertEquals(1L, catalogService.restaurantVersion(1));
+        assertEquals(2L, catalogService.restaurantVersion(2));
+
+        catalogService.onCatalogChanged(new CatalogChangedEvent(5L, "other", System.currentTimeMillis(), Set.of(3)));
+        assertEquals(5L, catalogService.restaurantVersion(3));
+        assertEquals(1L, catalogService.restaurantVersion(1));
+
+        // 乱序到达的旧消息不推进全局版本，但仍记录受影响的餐厅
+        catalogService.onCatalogChanged(new CatalogChangedEvent(4L, "other", System.currentTimeMillis(), Set.of(1)));
+        assertEquals(5L, catalogService.version());
+        assertEquals(4L, catalogService.restaurantVersion(1));
+
+        assertEquals(6L, catalogService.markChanged());
+        assertEquals(6L, catalogService.restaurantVersion(1));
+        assertEquals(6L, catalogService.restaurantVersion(3));
+    }
+
+    @Test
+    @DisplayName("测试变更经总线分配全局版本，收到其他节点的旧版本时不回退")
+    public void testVersionFromChangeBus() {
+        when(foodMp.findAll()).thenReturn(menu(food(1, "宫保鸡丁", 28)));
+        when(changeBus.publish(eq(2L), anyCollection())).thenReturn(7L);
+
+        assertEquals(7L, catalogService.markChanged());
+        assertEquals(7L, catalogService.version());
+
+        catalogService.onCatalogChanged(new CatalogChangedEvent(5L, "other", System.currentTimeMillis(), Set.of()));
+        assertEquals(7L, catalogService.version());
+        verify(changeBus, never()).recordApplied(anyLong());
+
+        catalogService.onCatalogChanged(new CatalogChangedEvent(9L, "other", System.currentTimeMillis(), Set.of()));
+        assertEquals(9L, catalogService.version());
+        // 收到变更后立即重建快照
+        assertEquals(9L, catalogService.snapshot().getVersion());
+        verify(foodMp, times(1)).findAll();
+        verify(changeBus).recordApplied(anyLong());
+    }
+
+    @Test
+    @DisplayName("测试快照文件版本与全局版本一致时直接使用，不查询数据库")
+    public void testWarmStartFromSnapshotFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("catalog.snap");
+        CatalogSnapshotFile.write(file, CatalogSnapshot.of(5, menu(food(1, "宫保鸡丁", 28))));
+        ReflectionTestUtils.setField(catalogService, "snapshotFile", file.toString());
+        when(changeBus.currentVersion()).thenReturn(5L);
+
+        catalogService.syncVersion();
+
+        assertEquals(5L, catalogService.version());
+        assertEquals("宫保鸡丁", catalogService.findById(1).getName());
+        verify(foodMp, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("测试全局版本未知时先用快照文件应答，后台与数据库核对后替换并使ETag失效")
+    public void testReconcileSnapshotFileWithDatabase(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("catalog.snap");
+        CatalogSnapshotFile.write(file, CatalogSnapshot.of(1, menu(food(1, "宫保鸡丁", 28))));
+        ReflectionTestUtils.setField(catalogService, "snapshotFile", file.toString());
+        CountDownLatch release = new CountDownLatch(1);
+        when(foodMp.findAll()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return menu(food(1, "宫保鸡丁", 30));
+        });
+
+        catalogService.syncVersion();
+
+        // 数据库查询尚未返回时已能应答
+        assertEquals(28, catalogService.findById(1).getPrice());
+        assertEquals(1L, catalogService.version());
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        // 核对完成后重写快照文件
+        while (!Long.valueOf(1).equals(catalogService.stats().get("snapshotFileWrites"))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(30, catalogService.findById(1).getPrice());
+        assertEquals(2L, catalogService.version());
+        assertEquals(2L, CatalogSnapshotFile.read(file).version());
+    }
+
+    private static List<food> menu(food... items) {
+        return new ArrayList<>(List.of(items));
+    }
+
+    private static food food(int id, String name, int price) {
+        food item = new food();
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(price);
+        item.setLevel(3);
+        return item;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo1.service;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.service.impl.ImageVariantServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ImageVariantServiceTest {
+
+    @TempDir
+    Path variantDir;
+
+    private ImageVariantServiceImpl imageVariantService;
+
+    @BeforeEach
+    public void setUp() {
+        imageVariantService = new ImageVariantServiceImpl();
+        ReflectionTestUtils.setField(imageVariantService, "variantDir", variantDir.toString());
+        CatalogService catalogService = mock(CatalogService.class);
+        when(catalogService.snapshot()).thenReturn(CatalogSnapshot.of(1, List.of(dish(1), dish(999))));
+        ReflectionTestUtils.setField(imageVariantService, "catalogService", catalogService);
+    }
+
+    @Test
+    @DisplayName("测试变体URL带源图摘要，srcset列出全部宽度")
+    public void testVariantUrls() {
+        String url = imageVariantService.url(1, 280, "jpg");
+        assertTrue(url.matches("/img/v/1-280-[0-9a-f]{8}\\.jpg"), url);
+
+        String srcset = imageVariantService.srcset(1, "jpg");
+        assertTrue(srcset.contains(url + " 280w"), srcset);
+        assertTrue(srcset.contains("-560-"), srcset);
+    }
+
+    @Test
+    @DisplayName("测试源图不存在或宽度不支持时回退到原图路径")
+    public void testFallbackToOriginal() {
+        assertEquals("/img/999.jpg", imageVariantService.url(999, 280, "jpg"));
+        assertNull(imageVariantService.srcset(999, "jpg"));
+        assertEquals("/img/1.jpg", imageVariantService.url(1, 123, "jpg"));
+    }
+
+    @Test
+    @DisplayName("测试首次访问生成缩略图并写入磁盘，之后复用同一文件")
+    public void testResolveGeneratesOnce() throws Exception {
+        String name = imageVariantService.url(1, 280, "jpg").substring("/img/v/".length());
+
+        Path file = imageVariantService.resolve(name);
+        assertNotNull(file);
+        assertTrue(Files.isRegularFile(file));
+        assertEquals(variantDir, file.getParent());
+
+        BufferedImage image = ImageIO.read(file.toFile());
+        assertEquals(280, image.getWidth());
+        assertTrue(Files.size(file) < Files.size(Path.of(getClass().getResource("/static/img/1.jpg").toURI())));
+
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        assertSame(file, imageVariantService.resolve(name));
+        assertEquals(modified, Files.getLastModifiedTime(file).toMillis());
+    }
+
+    @Test
+    @DisplayName("测试无效或过期的变体文件名不会生成文件")
+    public void testResolveRejectsUnknownNames() throws Exception {
+        assertNull(imageVariantService.resolve("1-280-00000000.jpg"));
+        assertNull(imageVariantService.resolve("1-999-00000000.jpg"));
+        assertNull(imageVariantService.resolve("../1.jpg"));
+        try (var files = Files.list(variantDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("测试只为目录中有源图的菜品缓存摘要，目录外ID和缺失源图不占用缓存")
+    public void testHashesBoundedByCatalog() {
+        // 2.jpg存在，但菜品2不在目录中
+        assertEquals("/img/2.jpg", imageVariantService.url(2, 280, "jpg"));
+        for (int id = 10_000; id < 10_100; id++) {
+            assertNull(imageVariantService.resolve(id + "-280-00000000.jpg"));
+        }
+        assertEquals("/img/999.jpg", imageVariantService.url(999, 280, "jpg"));
+        imageVariantService.url(1, 280, "jpg");
+
+        Map<?, ?> hashes = (Map<?, ?>) ReflectionTestUtils.getField(imageVariantService, "sourceHashes");
+        assertEquals(Map.of(1, hashes.get(1)), hashes);
+    }
+
+    private static food dish(int id) {
+        food f = new food();
+        f.setId(id);
+        f.setName("菜品" + id);
+        return f;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo1.service;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.Mapper.foodMapper;
+import com.example.demo1.service.impl.InventoryServiceImpl;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class InventoryServiceTest {
+
+    @Mock
+    private CatalogService catalogService;
+
+    @Mock
+    private foodMapper foodMp;
+
+    @Mock
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Mock
+    private SqlSession sqlSession;
+
+    @InjectMocks
+    private InventoryServiceImpl inventoryService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(inventoryService, "reservationTtlMinutes", 15L);
+        when(catalogService.version()).thenReturn(1L);
+        when(foodMp.findStocks()).thenReturn(List.of(stock(1, 2), stock(2, null)));
+        when(sqlSessionFactory.openSession(ExecutorType.SIMPLE, false)).thenReturn(sqlSession);
+        when(sqlSession.getMapper(foodMapper.class)).thenReturn(foodMp);
+        when(foodMp.takeStock(anyInt(), anyInt())).thenReturn(1);
+    }
+
+    @Test
+    @DisplayName("测试库存不足时拒绝加购，归还后其他购物车可以预占")
+    public void testReserveAcrossCarts() {
+        assertTrue(inventoryService.reserve("a", 1, 2));
+        assertFalse(inventoryService.reserve("b", 1, 1));
+        assertTrue(inventoryService.reserve("b", 2, 100));
+
+        inventoryService.release("a", 1, 5);
+        assertEquals(2, inventoryService.available(1));
+        assertTrue(inventoryService.reserve("b", 1, 1));
+        assertEquals(-1, inventoryService.available(2));
+        verify(foodMp, times(1)).findStocks();
+    }
+
+    @Test
+    @DisplayName("测试结算时在数据库中按条件扣减库存，预占转为售出")
+    public void testConfirmTakesDatabaseStock() {
+        inventoryService.reserve("a", 1, 1);
+        assertEquals(List.of(), inventoryService.confirm("a", Map.of(1, 2)));
+        assertEquals(0, inventoryService.available(1));
+
+        verify(foodMp).takeStock(1, 2);
+        verify(sqlSession).commit();
+        assertEquals(2L, inventoryService.stats().get("inventorySold"));
+    }
+
+    @Test
+    @DisplayName("测试撤销结算时加回数据库库存，并重新为购物车预占")
+    public void testCancelReturnsStock() {
+        inventoryService.reserve("a", 1, 2);
+        inventoryService.confirm("a", Map.of(1, 2));
+
+        inventoryService.cancel("a", Map.of(1, 2));
+
+        verify(foodMp).returnStock(1, 2);
+        verify(sqlSession, times(2)).commit();
+        assertEquals(0L, inventoryService.stats().get("inventorySold"));
+        assertFalse(inventoryService.reserve("b", 1, 1));
+        inventoryService.release("a", 1, 2);
+        assertEquals(2, inventoryService.available(1));
+    }
+
+    @Test
+    @DisplayName("测试其他节点已售出时数据库扣减失败：整体回滚、预占保留，并立即重新同步台账")
+    public void testConfirmSoldOutOnOtherNode() {
+        inventoryService.reserve("a", 1, 2);
+        // 另一个节点已把菜品1卖完，本节点台账还不知道
+        when(foodMp.takeStock(1, 2)).thenReturn(0);
+        when(foodMp.findStocks()).thenReturn(List.of(stock(1, 0), stock(2, null)));
+
+        assertEquals(List.of(1), inventoryService.confirm("a", Map.of(2, 1, 1, 2)));
+        verify(sqlSession).rollback();
+        verify(sqlSession, never()).commit();
+        assertEquals(0L, inventoryService.stats().get("inventorySold"));
+        assertEquals(1L, inventoryService.stats().get("inventoryStockConflicts"));
+        assertEquals(0, inventoryService.available(1));
+        verify(foodMp, times(2)).findStocks();
+
+        // 预占仍在购物车a名下，其他购物车加购被拒绝
+        assertFalse(inventoryService.reserve("b", 1, 1));
+    }
+
+    @Test
+    @DisplayName("测试结算库存不足时不扣库存，预占保留在购物车")
+    public void testConfirmShortage() {
+        inventoryService.reserve("a", 1, 1);
+        inventoryService.reserve("b", 1, 1);
+
+        assertEquals(List.of(1), inventoryService.confirm("a", Map.of(1, 2, 2, 3)));
+        assertEquals(0, inventoryService.available(1));
+        verify(foodMp, never()).takeStock(anyInt(), anyInt());
+
+        inventoryService.release("b", 1, 1);
+        assertEquals(List.of(), inventoryService.confirm("a", Map.of(1, 2)));
+    }
+
+    @Test
+    @DisplayName("测试过期预占被清理并归还库存")
+    public void testExpireReservations() {
+        ReflectionTestUtils.setField(inventoryService, "reservationTtlMinutes", 0L);
+        inventoryService.reserve("a", 1, 2);
+        assertEquals(0, inventoryService.available(1));
+
+        inventoryService.expireReservations();
+        assertEquals(2, inventoryService.available(1));
+        assertEquals(2L, inventoryService.stats().get("inventoryExpired"));
+    }
+
+    private static food stock(int id, Integer stock) {
+        food item = new food();
+        item.setId(id);
+        item.setStock(stock);
+        return item;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo1.service;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.dto.CompanionItem;
+import com.example.demo1.repository.FoodOrderRepository;
+import com.example.demo1.repository.OrderItemRepository;
+import com.example.demo1.service.impl.RecommendationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RecommendationServiceTest {
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private FoodOrderRepository foodOrderRepository;
+
+    @Mock
+    private CatalogService catalogService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RecommendationServiceImpl recommendationService;
+
+    @BeforeEach
+    public void setUp() {
+        List<food> foods = new ArrayList<>();
+        String[] names = {"米饭", "宫保鸡丁", "红烧肉", "酸辣汤"};
+        for (int i = 0; i < names.length; i++) {
+            food item = new food();
+            item.setId(i + 1);
+            item.setName(names[i]);
+            foods.add(item);
+        }
+        when(catalogService.snapshot()).thenReturn(CatalogSnapshot.of(1, foods));
+    }
+
+    @Test
+    @DisplayName("测试从订单明细流式重建，并跳过已下架的菜品")
+    public void testRebuildFromHistory() {
+        when(foodOrderRepository.findMaxId()).thenReturn(3L);
+        when(orderItemRepository.streamOrderLines(3L)).thenReturn(Stream.of(
+                line(1, 1), line(1, 2),
+                line(2, 2), line(2, 1), line(2, 99),
+                line(3, 3), line(3, 4)));
+
+        assertEquals(3, recommendationService.rebuild());
+
+        List<CompanionItem> companions = recommendationService.companions(2, 5);
+        assertEquals(1, companions.size());
+        assertEquals("米饭", companions.get(0).getFood().getName());
+        assertEquals(2, companions.get(0).getCount());
+        assertEquals(4, recommendationService.companions(3, 5).get(0).getFood().getId());
+    }
+
+    @Test
+    @DisplayName("测试结算后增量计入，重建完成后替换为历史统计")
+    public void testIncrementalThenRebuild() {
+        recommendationService.recordOrder(10, new int[]{3, 1});
+        assertEquals(1, recommendationService.companions(3, 5).get(0).getFood().getId());
+
+        when(foodOrderRepository.findMaxId()).thenReturn(10L);
+        when(orderItemRepository.streamOrderLines(10L)).thenReturn(Stream.of(line(10, 3), line(10, 1)));
+        recommendationService.rebuild();
+
+        // 同一订单不会被重复计数
+        assertEquals(1, recommendationService.companions(3, 5).get(0).getCount());
+    }
+
+    @Test
+    @DisplayName("测试重建期间提交的订单按流中是否读到去重，ID不大于上限的晚提交订单也会补入")
+    public void testLateCommitDuringRebuild() {
+        when(foodOrderRepository.findMaxId()).thenReturn(10L);
+        // 订单8在读取上限之前分配了ID，但在流的快照之后才提交
+        when(orderItemRepository.streamOrderLines(10L)).thenReturn(Stream.of(
+                line(9, 3), line(9, 1),
+                line(10, 3), line(10, 2)).peek(line -> {
+                    if (((Number) line[0]).longValue() == 10 && ((Number) line[1]).intValue() == 2) {
+                        recommendationService.recordOrder(9, new int[]{3, 1});
+                        recommendationService.recordOrder(8, new int[]{3, 4});
+                        recommendationService.recordOrder(11, new int[]{3, 4});
+                    }
+                }));
+
+        recommendationService.rebuild();
+
+        List<CompanionItem> companions = recommendationService.companions(3, 5);
+        assertEquals(4, companions.get(0).getFood().getId());
+        assertEquals(2, companions.get(0).getCount());
+        // 流中读到的订单9不重复计数
+        assertEquals(1, companions.get(1).getCount());
+    }
+
+    private static Object[] line(long orderId, int foodId) {
+        return new Object[]{orderId, foodId};
+    }
+}
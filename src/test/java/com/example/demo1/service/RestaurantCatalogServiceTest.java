@@ -0,0 +1,124 @@
+package com.example.demo1.service;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.Mapper.foodMapper;
+import com.example.demo1.catalog.MenuFragmentCache;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import com.example.demo1.service.impl.RestaurantCatalogServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class RestaurantCatalogServiceTest {
+
+    @Mock
+    private CatalogService catalogService;
+
+    @Mock
+    private foodMapper foodMp;
+
+    @Mock
+    private TrendingService trendingService;
+
+    @Mock
+    private MenuFragmentCache menuFragmentCache;
+
+    @InjectMocks
+    private RestaurantCatalogServiceImpl restaurantCatalogService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(restaurantCatalogService, "storage", "heap");
+        ReflectionTestUtils.setField(restaurantCatalogService, "idleMinutes", 30L);
+        when(catalogService.restaurantVersion(anyInt())).thenReturn(1L);
+        when(foodMp.findByRestaurant(1)).thenReturn(List.of(dish(1, 1), dish(2, 1)));
+        when(foodMp.findByRestaurant(2)).thenReturn(List.of(dish(3, 2)));
+    }
+
+    @Test
+    @DisplayName("测试每个餐厅只加载自己的菜品，版本不变时不再查询")
+    public void testPartitionLoadsOnlyItsRestaurant() {
+        CatalogPage page = restaurantCatalogService.page(1, new CatalogQuery());
+        assertEquals(List.of(1, 2), page.getItems().stream().map(food::getId).toList());
+        assertEquals(3, restaurantCatalogService.findById(2, 3).getId());
+        assertNull(restaurantCatalogService.findById(2, 1));
+
+        restaurantCatalogService.page(1, new CatalogQuery());
+        verify(foodMp, times(1)).findByRestaurant(1);
+        verify(foodMp, times(1)).findByRestaurant(2);
+        verify(foodMp, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("测试只有菜单版本变化的餐厅在下次访问时重新加载，其他餐厅的分区不受影响")
+    public void testReloadOnVersionChange() {
+        restaurantCatalogService.snapshot(1);
+        restaurantCatalogService.snapshot(2);
+        when(catalogService.restaurantVersion(1)).thenReturn(2L);
+
+        assertEquals(2L, restaurantCatalogService.snapshot(1).getVersion());
+        assertEquals(1L, restaurantCatalogService.snapshot(2).getVersion());
+        verify(foodMp, times(2)).findByRestaurant(1);
+        verify(foodMp, times(1)).findByRestaurant(2);
+    }
+
+    @Test
+    @DisplayName("测试刷新失败时继续使用该分区的旧快照")
+    public void testStaleOnFailure() {
+        restaurantCatalogService.snapshot(1);
+        when(catalogService.restaurantVersion(1)).thenReturn(2L);
+        when(foodMp.findByRestaurant(1)).thenThrow(new RuntimeException("db down"));
+
+        assertEquals(1L, restaurantCatalogService.snapshot(1).getVersion());
+        assertEquals(1L, restaurantCatalogService.stats().get("restaurantPartitionLoadFailures"));
+    }
+
+    @Test
+    @DisplayName("测试分区按餐厅单独淘汰，同时丢弃该餐厅的菜单片段")
+    public void testEviction() {
+        restaurantCatalogService.snapshot(1);
+        restaurantCatalogService.snapshot(2);
+
+        restaurantCatalogService.evictIdle();
+        assertEquals(2, restaurantCatalogService.stats().get("restaurantPartitions"));
+
+        restaurantCatalogService.evict(2);
+        verify(menuFragmentCache).evict(2);
+        verify(menuFragmentCache, never()).evict(1);
+        assertEquals(1, restaurantCatalogService.stats().get("restaurantPartitions"));
+        restaurantCatalogService.snapshot(1);
+        verify(foodMp, times(1)).findByRestaurant(1);
+
+        // 闲置时间为负数时所有分区都视为闲置
+        ReflectionTestUtils.setField(restaurantCatalogService, "idleMinutes", -1L);
+        restaurantCatalogService.evictIdle();
+        assertEquals(0, restaurantCatalogService.stats().get("restaurantPartitions"));
+        assertEquals(2L, restaurantCatalogService.stats().get("restaurantPartitionEvictions"));
+        verify(menuFragmentCache).evict(1);
+    }
+
+    private static food dish(int id, int restaurantId) {
+        food item = new food();
+        item.setId(id);
+        item.setName("菜品" + id);
+        item.setPrice(10 + id);
+        item.setLevel(3);
+        item.setRestaurantId(restaurantId);
+        return item;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo1.service;
+
+import com.example.demo1.Entity.food;
+import com.example.demo1.catalog.CatalogSnapshot;
+import com.example.demo1.catalog.Money;
+import com.example.demo1.dto.CatalogPage;
+import com.example.demo1.dto.CatalogQuery;
+import com.example.demo1.dto.TrendingItem;
+import com.example.demo1.service.impl.TrendingServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrendingServiceTest {
+
+    private TrendingServiceImpl trendingService;
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    public void setUp() {
+        trendingService = new TrendingServiceImpl();
+        ReflectionTestUtils.setField(trendingService, "windowMinutes", 60);
+        ReflectionTestUtils.setField(trendingService, "buckets", 12);
+        trendingService.init();
+
+        List<food> foods = new ArrayList<>();
+        for (int id = 1; id <= 6; id++) {
+            food item = new food();
+            item.setId(id);
+            item.setName("菜品" + id);
+            item.setPrice(Money.ofYuan(id * 10));
+            item.setLevel(3);
+            foods.add(item);
+        }
+        snapshot = CatalogSnapshot.of(1, foods);
+    }
+
+    @Test
+    @DisplayName("测试热门榜按加购次数降序，忽略没有加购记录和已下架的菜品")
+    public void testTop() {
+        add(3, 5);
+        add(5, 2);
+        add(1, 2);
+        add(99, 10);
+
+        List<TrendingItem> top = trendingService.top(snapshot, 10);
+        assertEquals(3, top.size());
+        assertEquals(3, top.get(0).getFood().getId());
+        assertEquals(5, top.get(0).getCount());
+        // 次数相同时id小的在前
+        assertEquals(1, top.get(1).getFood().getId());
+        assertEquals(5, top.get(2).getFood().getId());
+
+        assertEquals(1, trendingService.top(snapshot, 1).size());
+    }
+
+    @Test
+    @DisplayName("测试热度排序分页与过滤，未加购的菜品按id排在最后")
+    public void testHotPage() {
+        add(4, 3);
+        add(2, 1);
+        CatalogQuery query = new CatalogQuery();
+        query.setSort("hot");
+        query.setSize(2);
+        query.setMinPrice(20);
+
+        CatalogPage first = trendingService.page(snapshot, query);
+        assertEquals(List.of(4, 2), ids(first.getItems()));
+        assertTrue(first.isHasMore());
+
+        query.setCursor(first.getNextCursor());
+        CatalogPage second = trendingService.page(snapshot, query);
+        assertEquals(List.of(3, 5), ids(second.getItems()));
+
+        query.setCursor(second.getNextCursor());
+        CatalogPage third = trendingService.page(snapshot, query);
+        assertEquals(List.of(6), ids(third.getItems()));
+        assertFalse(third.isHasMore());
+        assertNull(third.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("测试排名在翻页之间变化时，下一页从上一页最后一行之后继续，不会重复")
+    public void testHotPageCursorSurvivesReranking() {
+        add(4, 3);
+        add(2, 1);
+        CatalogQuery query = new CatalogQuery();
+        query.setSort("hot");
+        query.setSize(2);
+
+        CatalogPage first = trendingService.page(snapshot, query);
+        assertEquals(List.of(4, 2), ids(first.getItems()));
+
+        // 菜品6冲到榜首，按偏移量翻页会再次返回菜品2
+        add(6, 5);
+        ReflectionTestUtils.setField(trendingService, "ranking", null);
+        query.setCursor(first.getNextCursor());
+        CatalogPage second = trendingService.page(snapshot, query);
+        assertEquals(List.of(1, 3), ids(second.getItems()));
+    }
+
+    private void add(int foodId, int times) {
+        for (int i = 0; i < times; i++) {
+            trendingService.recordAdd(foodId);
+        }
+    }
+
+    private static List<Integer> ids(List<food> items) {
+        List<Integer> ids = new ArrayList<>();
+        for (food item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+}